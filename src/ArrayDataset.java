@@ -0,0 +1,65 @@
+import java.util.Arrays;
+
+/**
+ * Registros codificados guardados em vetores primitivos na memória, para
+ * conjuntos montados em tempo de execução (linhas novas, amostras de replay).
+ */
+public class ArrayDataset implements EncodedDataset {
+
+    private static final int WIDTH = BankMarketingPerceptron.INPUT_SIZE;
+
+    private double[] inputs;
+    private double[] labels;
+    private int size;
+
+    public ArrayDataset() {
+        this(1024);
+    }
+
+    public ArrayDataset(int capacity) {
+        inputs = new double[Math.max(1, capacity) * WIDTH];
+        labels = new double[Math.max(1, capacity)];
+    }
+
+    /**
+     * Acrescenta um registro; o vetor de entradas é copiado.
+     */
+    public void add(double[] row, double label) {
+        if (size == labels.length) {
+            inputs = Arrays.copyOf(inputs, inputs.length * 2);
+            labels = Arrays.copyOf(labels, labels.length * 2);
+        }
+        set(size++, row, label);
+    }
+
+    /**
+     * Substitui o registro na posição index.
+     */
+    public void set(int index, double[] row, double label) {
+        System.arraycopy(row, 0, inputs, index * WIDTH, WIDTH);
+        labels[index] = label;
+    }
+
+    public void addAll(EncodedDataset other) {
+        double[] row = new double[WIDTH];
+        for (int r = 0; r < other.size(); r++) {
+            other.readInputs(r, row);
+            add(row, other.label(r));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void readInputs(int row, double[] dst) {
+        System.arraycopy(inputs, row * WIDTH, dst, 0, WIDTH);
+    }
+
+    @Override
+    public double label(int row) {
+        return labels[row];
+    }
+}
@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gravação atômica de arquivos: o conteúdo vai para um arquivo temporário
+ * no mesmo diretório, que depois é renomeado sobre o destino, para nunca
+ * deixar um cache, modelo ou checkpoint pela metade. O temporário é criado
+ * com as permissões padrão (umask), não com as restritas de
+ * Files.createTempFile, que o rename levaria para o destino.
+ */
+final class AtomicFiles {
+
+    /**
+     * Escreve o conteúdo do arquivo.
+     */
+    interface Content {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Grava os bytes restantes de um ByteBuffer com array.
+     */
+    static void write(Path target, final ByteBuffer buffer) throws IOException {
+        write(target, out -> out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining()));
+    }
+
+    static void write(Path target, Content content) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        Path temp = absolute.resolveSibling(absolute.getFileName() + "."
+            + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                content.writeTo(out);
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.neuroph.core.data.DataSet;
+import org.neuroph.nnet.MultiLayerPerceptron;
+import org.neuroph.nnet.learning.BackPropagation;
+import org.neuroph.util.TransferFunctionType;
+
+/**
+ * Suíte de benchmarks dos caminhos principais: leitura do CSV, codificação
+ * por registro, uma época de treinamento, inferência de um registro e
+ * inferência em lote. Roda sobre o bank.csv e sobre um CSV sintético
+ * ampliado ({@link SyntheticBankData}).
+ *
+ * Cada benchmark faz aquecimento, mede várias iterações e informa ns/op,
+ * ops/s, bytes alocados por op na thread que mede (equivalente ao
+ * gc.alloc.rate.norm do "-prof gc" do JMH) e coletas/tempo de GC. Uma op é
+ * um registro. Alocações feitas pelas threads do pool de treinamento não
+ * entram na conta de bytes/op, mas entram nas coletas de GC.
+ * Executar: java -cp "lib\*;bin" BankBenchmarks [linhas sintéticas] [iterações]
+ */
+public class BankBenchmarks {
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static double checksum; // evita que o JIT elimine o trabalho
+
+    /**
+     * Uma iteração do benchmark; retorna o número de ops (registros) processados.
+     */
+    interface Operation {
+        long run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int syntheticRows = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        File synthetic = File.createTempFile("bank-synthetic", ".csv");
+        synthetic.deleteOnExit();
+        new File(synthetic.getPath() + BankDataCache.SUFFIX).deleteOnExit();
+        SyntheticBankData.generate("bank_assets/bank.csv", synthetic.getPath(), syntheticRows, 42);
+
+        System.out.println("=== BENCHMARKS ===");
+        System.out.println(String.format("%-40s %12s %14s %12s %8s %10s",
+            "benchmark", "ns/op", "ops/s", "bytes/op", "gc", "gc ms"));
+
+        run("bank.csv", "bank_assets/bank.csv", iterations);
+        run("sintético " + syntheticRows, synthetic.getPath(), iterations);
+    }
+
+    private static void run(String label, final String filename, int iterations) throws Exception {
+        System.out.println("--- " + label + " ---");
+
+        // Leitura + codificação do arquivo inteiro
+        measure("csv.parse", iterations, () -> new BankCsvReader().read(filename, (inputs, y) -> checksum += y));
+
+        // Codificação de registros já em memória
+        final byte[] content = Files.readAllBytes(Paths.get(filename));
+        final int[] lineEnds = lineEnds(content);
+        final BankCsvReader encoder = new BankCsvReader();
+        final double[] row = new double[BankMarketingPerceptron.INPUT_SIZE];
+        measure("encode.row", iterations, () -> {
+            int start = lineEnds[0] + 1; // pular cabeçalho
+            for (int i = 1; i < lineEnds.length; i++) {
+                int end = content[lineEnds[i] - 1] == '\r' ? lineEnds[i] - 1 : lineEnds[i];
+                checksum += encoder.encodeRecord(content, start, end, row);
+                start = lineEnds[i] + 1;
+            }
+            return lineEnds.length - 1;
+        });
+
+        final EncodedDataset dataset = BankDataCache.open(filename);
+        final int rows = dataset.size();
+
+        // Uma época de treinamento
+        measure("train.epoch.minibatch", iterations, () -> {
+            MiniBatchTrainer trainer = new MiniBatchTrainer();
+            trainer.setMaxIterations(1);
+            trainer.train(newNetwork(), dataset);
+            return rows;
+        });
+        final DataSet dataSet = dataset.toDataSet();
+        measure("train.epoch.neuroph", iterations, () -> {
+            BackPropagation learningRule = new BackPropagation();
+            learningRule.setMaxIterations(1);
+            learningRule.setLearningRate(0.1);
+            newNetwork().learn(dataSet, learningRule);
+            return rows;
+        });
+
+        // Inferência
+        final MultiLayerPerceptron network = newNetwork();
+        final CompiledScorer scorer = CompiledScorer.compile(network);
+        final double[] inputs = new double[rows * BankMarketingPerceptron.INPUT_SIZE];
+        for (int r = 0; r < rows; r++) {
+            dataset.readInputs(r, row);
+            System.arraycopy(row, 0, inputs, r * row.length, row.length);
+        }
+
+        measure("score.single.neuroph", iterations, () -> {
+            for (int r = 0; r < rows; r++) {
+                System.arraycopy(inputs, r * row.length, row, 0, row.length);
+                network.setInput(row);
+                network.calculate();
+                checksum += network.getOutput()[0];
+            }
+            return rows;
+        });
+        final CompiledScorer.Workspace single = scorer.newWorkspace(1);
+        measure("score.single.compiled", iterations, () -> {
+            for (int r = 0; r < rows; r++) {
+                System.arraycopy(inputs, r * row.length, row, 0, row.length);
+                checksum += scorer.score(row, single);
+            }
+            return rows;
+        });
+        final CompiledScorer.Workspace block = scorer.newWorkspace();
+        final double[] outputs = new double[rows];
+        measure("score.batch.compiled", iterations, () -> {
+            scorer.score(inputs, rows, outputs, block);
+            checksum += outputs[rows - 1];
+            return rows;
+        });
+    }
+
+    private static void measure(String name, int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+        long allocated = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        long ops = 0;
+        for (int i = 0; i < iterations; i++) {
+            ops += operation.run();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated;
+
+        System.out.println(String.format("%-40s %12.1f %14.0f %12.1f %8d %10d",
+            name, (double) elapsed / ops, ops / (elapsed / 1e9), (double) allocated / ops,
+            gcCount() - gcCount, gcMillis() - gcMillis));
+    }
+
+    private static MultiLayerPerceptron newNetwork() {
+        return new MultiLayerPerceptron(TransferFunctionType.SIGMOID,
+            BankMarketingPerceptron.INPUT_SIZE, 32, 16, BankMarketingPerceptron.OUTPUT_SIZE);
+    }
+
+    /**
+     * Posições de cada '\n' do arquivo.
+     */
+    private static int[] lineEnds(byte[] content) {
+        int[] ends = new int[1024];
+        int count = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n') {
+                if (count == ends.length) {
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                ends[count++] = i;
+            }
+        }
+        return Arrays.copyOf(ends, count);
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
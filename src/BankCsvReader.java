@@ -0,0 +1,319 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitor em streaming do CSV do Bank Marketing.
+ * Lê blocos de bytes de um FileChannel e interpreta cada campo diretamente
+ * sobre o buffer, sem criar uma String por campo. Os valores codificados são
+ * escritos num vetor reutilizado e entregues a um {@link RowHandler}.
+ * As categorias são resolvidas pelos codificadores de {@link BankFeatureEncoder}.
+ */
+public class BankCsvReader {
+
+    public static final int COLUMN_COUNT = 17; // 16 entradas + y
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte SEPARATOR = ';';
+    private static final byte QUOTE = '"';
+    // Potências de 10 representáveis exatamente em double
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    /**
+     * Recebe cada registro válido. O vetor de entradas é reutilizado entre
+     * chamadas; quem precisar guardá-lo deve fazer uma cópia.
+     */
+    public interface RowHandler {
+        void onRow(double[] inputs, double label);
+    }
+
+    private byte[] buffer; // alocado na primeira leitura de arquivo
+    private byte[] data; // vetor em decodificação: o buffer de leitura ou o recebido em encodeRecord
+    private final int[] fieldStart = new int[COLUMN_COUNT];
+    private final int[] fieldEnd = new int[COLUMN_COUNT];
+    private final double[] inputs = new double[BankMarketingPerceptron.INPUT_SIZE];
+
+    private long lineNumber;
+    private boolean skipHeader;
+    private long endOffset;
+    private long rowsRead;
+    private long rowsSkipped;
+
+    /**
+     * Lê o arquivo inteiro (pulando o cabeçalho) e retorna o número de
+     * registros entregues ao handler.
+     */
+    public long read(String filename, RowHandler handler) throws IOException {
+        return read(filename, 0, Long.MAX_VALUE, false, handler);
+    }
+
+    /**
+     * Lê apenas as linhas completas (terminadas em '\n') entre os bytes start
+     * e end do arquivo. start deve ser o início de uma linha, por exemplo o
+     * {@link #getEndOffset()} de uma leitura anterior; o cabeçalho só é pulado
+     * quando start é 0. Uma última linha sem '\n' fica para a próxima leitura,
+     * pois pode estar sendo gravada.
+     */
+    public long readRange(String filename, long start, long end, RowHandler handler) throws IOException {
+        return read(filename, start, end, true, handler);
+    }
+
+    private long read(String filename, long start, long end, boolean completeLinesOnly,
+                      RowHandler handler) throws IOException {
+        lineNumber = 0;
+        rowsRead = 0;
+        rowsSkipped = 0;
+        skipHeader = start == 0;
+        endOffset = start;
+        if (buffer == null) {
+            buffer = new byte[INITIAL_BUFFER_SIZE];
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            channel.position(start);
+            long bufferOffset = start; // posição no arquivo de buffer[0]
+            int filled = 0;
+            boolean eof = false;
+
+            while (!eof) {
+                if (filled == buffer.length) {
+                    // Linha maior que o buffer: dobrar a capacidade
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, filled);
+                    buffer = larger;
+                }
+
+                long remaining = end - (bufferOffset + filled);
+                int n = remaining <= 0 ? -1
+                    : channel.read(ByteBuffer.wrap(buffer, filled, (int) Math.min(buffer.length - filled, remaining)));
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    filled += n;
+                }
+
+                // Processar todas as linhas completas do buffer
+                int lineStart = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        processLine(lineStart, i, handler);
+                        lineStart = i + 1;
+                    }
+                }
+
+                if (eof && lineStart < filled && !completeLinesOnly) {
+                    processLine(lineStart, filled, handler); // última linha sem '\n'
+                    lineStart = filled;
+                }
+
+                // Mover o resto (linha incompleta) para o início do buffer
+                bufferOffset += lineStart;
+                endOffset = bufferOffset;
+                filled -= lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            }
+        }
+
+        return rowsRead;
+    }
+
+    /**
+     * Posição no arquivo logo após a última linha consumida pela leitura anterior.
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Linhas ignoradas por terem menos de {@link #COLUMN_COUNT} colunas.
+     */
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    private void processLine(int start, int end, RowHandler handler) {
+        lineNumber++;
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        if ((skipHeader && lineNumber == 1) || end == start) {
+            return; // Pular cabeçalho e linhas vazias
+        }
+
+        double label;
+        try {
+            label = encode(buffer, start, end, inputs, true);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Linha " + lineNumber + ": " + e.getMessage());
+        }
+        if (Double.isNaN(label)) {
+            rowsSkipped++;
+            return;
+        }
+
+        rowsRead++;
+        handler.onRow(inputs, label);
+    }
+
+    /**
+     * Codifica um único registro (sem cabeçalho) contido em data[start, end)
+     * e grava as 16 entradas em dst. Retorna o rótulo y (0 ou 1), ou NaN se
+     * o registro tiver menos de {@link #COLUMN_COUNT} colunas. Um número
+     * inválido gera NumberFormatException sem o número da linha, que fica
+     * a cargo de quem chama.
+     */
+    public double encodeRecord(byte[] data, int start, int end, double[] dst) {
+        return encode(data, start, end, dst, true);
+    }
+
+    /**
+     * Codifica apenas as 16 entradas de data[start, end); a coluna y, se
+     * presente, é ignorada. Retorna false se o registro tiver menos de 16
+     * colunas.
+     */
+    public boolean encodeInputs(byte[] data, int start, int end, double[] dst) {
+        return !Double.isNaN(encode(data, start, end, dst, false));
+    }
+
+    private double encode(byte[] source, int start, int end, double[] dst, boolean withLabel) {
+        data = source;
+
+        // Separar campos
+        int fields = 0;
+        int fieldBegin = start;
+        for (int i = start; i <= end && fields < COLUMN_COUNT; i++) {
+            if (i == end || data[i] == SEPARATOR) {
+                fieldStart[fields] = fieldBegin;
+                fieldEnd[fields] = i;
+                fields++;
+                fieldBegin = i + 1;
+            }
+        }
+
+        if (withLabel ? fields < COLUMN_COUNT || isEmpty(COLUMN_COUNT - 1)
+                      : fields < BankMarketingPerceptron.INPUT_SIZE) {
+            return Double.NaN;
+        }
+
+        // Processar atributos de entrada
+        dst[0] = BankFeatureEncoder.encodeAge(number(0)); // age
+        dst[1] = category(1, BankFeatureEncoder.JOB); // job
+        dst[2] = category(2, BankFeatureEncoder.MARITAL_STATUS); // marital
+        dst[3] = category(3, BankFeatureEncoder.EDUCATION_LEVEL); // education
+        dst[4] = category(4, BankFeatureEncoder.DEFAULT); // default
+        dst[5] = BankFeatureEncoder.normalizeBalance(number(5)); // balance
+        dst[6] = category(6, BankFeatureEncoder.HOUSING); // housing
+        dst[7] = category(7, BankFeatureEncoder.LOAN); // loan
+        dst[8] = category(8, BankFeatureEncoder.CONTACT_TYPE); // contact
+        dst[9] = BankFeatureEncoder.encodeDay(number(9)); // day
+        dst[10] = category(10, BankFeatureEncoder.MONTH); // month
+        dst[11] = BankFeatureEncoder.normalizeDuration(number(11)); // duration
+        dst[12] = BankFeatureEncoder.encodeCampaign(number(12)); // campaign
+        dst[13] = BankFeatureEncoder.encodePdays(number(13)); // pdays
+        dst[14] = BankFeatureEncoder.encodePrevious(number(14)); // previous
+        dst[15] = category(15, BankFeatureEncoder.PREVIOUS_OUTCOME); // poutcome
+
+        // Processar saída
+        return withLabel ? category(16, BankFeatureEncoder.SUBSCRIBED) : 0.0; // y
+    }
+
+    private boolean isEmpty(int field) {
+        for (int i = fieldStart[field]; i < fieldEnd[field]; i++) {
+            if (data[i] != QUOTE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Código normalizado da categoria, pela tabela de hash perfeito da coluna.
+     */
+    private double category(int field, CategoricalEncoder encoder) {
+        int start = unquotedStart(field);
+        return encoder.encode(data, start, unquotedEnd(field, start));
+    }
+
+    private int unquotedStart(int field) {
+        int start = fieldStart[field];
+        while (start < fieldEnd[field] && data[start] == QUOTE) {
+            start++;
+        }
+        return start;
+    }
+
+    private int unquotedEnd(int field, int start) {
+        int end = fieldEnd[field];
+        while (end > start && data[end - 1] == QUOTE) {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Converte o campo numérico sem criar String. Formatos fora do caso comum
+     * (expoente, mais de 15 dígitos) caem para Double.parseDouble.
+     */
+    private double number(int field) {
+        int start = unquotedStart(field);
+        int end = unquotedEnd(field, start);
+        int i = start;
+
+        boolean negative = false;
+        if (i < end && (data[i] == '-' || data[i] == '+')) {
+            negative = data[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = data[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (i != end || digits == 0 || digits > 15 || fractionDigits >= POWERS_OF_TEN.length) {
+            return slowNumber(start, end);
+        }
+
+        // Mantissa < 2^53 e 10^k exato: uma única divisão arredonda corretamente
+        double value = fractionDigits == 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double slowNumber(int start, int end) {
+        String text = new String(data, start, end - start, StandardCharsets.UTF_8);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("valor numérico inválido \"" + text + "\"");
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Cache binário colunar dos registros já codificados.
+ * Na primeira execução o CSV é lido e as 16 entradas + rótulo são gravadas
+ * em float32, uma coluna após a outra, em "arquivo.csv.encoded". Nas
+ * execuções seguintes o arquivo é mapeado em memória e nada é interpretado.
+ *
+ * Formato (little-endian):
+ *   int    MAGIC
+ *   int    FORMAT_VERSION
+ *   long   impressão digital da codificação (vocabulários + normalize*)
+ *   long   tamanho do CSV de origem
+ *   long   data de modificação do CSV de origem
+ *   int    número de registros
+ *   int    número de colunas (17)
+ *   float  colunas[17][registros]
+ *
+ * O cache é reconstruído quando o CSV ou a codificação mudam.
+ */
+public class BankDataCache {
+
+    static final String SUFFIX = ".encoded";
+
+    private static final int MAGIC = 0x424E4B43; // "BNKC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 4;
+    private static final int COLUMNS = BankMarketingPerceptron.INPUT_SIZE + 1;
+
+    /**
+     * Abre o cache do CSV, (re)construindo-o se estiver ausente ou desatualizado.
+     */
+    public static EncodedDataset open(String csvFilename) throws IOException {
+        Path cache = Paths.get(csvFilename + SUFFIX);
+        EncodedDataset dataset = tryMap(csvFilename, cache);
+        if (dataset == null) {
+            build(csvFilename, cache);
+            dataset = tryMap(csvFilename, cache);
+            if (dataset == null) {
+                throw new IOException("Cache recém-gerado inválido: " + cache);
+            }
+        }
+        return dataset;
+    }
+
+    private static EncodedDataset tryMap(String csvFilename, Path cache) throws IOException {
+        if (!Files.exists(cache)) {
+            return null;
+        }
+
+        File source = new File(csvFilename);
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Cache maior que 2 GB não pode ser mapeado num único buffer: " + cache);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (mapped.getInt() != MAGIC
+                    || mapped.getInt() != FORMAT_VERSION
+                    || mapped.getLong() != BankFeatureEncoder.fingerprint()
+                    || mapped.getLong() != source.length()
+                    || mapped.getLong() != source.lastModified()) {
+                return null;
+            }
+            int rows = mapped.getInt();
+            int columns = mapped.getInt();
+            if (columns != COLUMNS || channel.size() != HEADER_SIZE + (long) rows * columns * 4) {
+                return null;
+            }
+
+            // O mapeamento continua válido após fechar o canal
+            return new MappedDataset(mapped, rows);
+        }
+    }
+
+    private static void build(String csvFilename, Path cache) throws IOException {
+        File source = new File(csvFilename);
+        long length = source.length();
+        long lastModified = source.lastModified();
+
+        final ColumnBuilder builder = new ColumnBuilder();
+        new BankCsvReader().read(csvFilename, builder);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(FORMAT_VERSION);
+        header.putLong(BankFeatureEncoder.fingerprint());
+        header.putLong(length);
+        header.putLong(lastModified);
+        header.putInt(builder.rows);
+        header.putInt(COLUMNS);
+        header.flip();
+
+        AtomicFiles.write(cache, out -> {
+            out.write(header.array(), 0, header.limit());
+            ByteBuffer block = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int column = 0; column < COLUMNS; column++) {
+                float[] values = builder.columns[column];
+                for (int row = 0; row < builder.rows; row++) {
+                    if (block.remaining() < 4) {
+                        out.write(block.array(), 0, block.position());
+                        block.clear();
+                    }
+                    block.putFloat(values[row]);
+                }
+            }
+            out.write(block.array(), 0, block.position());
+        });
+    }
+
+    /**
+     * Acumula os registros lidos em colunas float32 crescentes.
+     */
+    private static class ColumnBuilder implements BankCsvReader.RowHandler {
+        float[][] columns = new float[COLUMNS][1024];
+        int rows;
+
+        @Override
+        public void onRow(double[] inputs, double label) {
+            if (rows == columns[0].length) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    columns[column] = Arrays.copyOf(columns[column], rows * 2);
+                }
+            }
+            for (int column = 0; column < inputs.length; column++) {
+                columns[column][rows] = (float) inputs[column];
+            }
+            columns[COLUMNS - 1][rows] = (float) label;
+            rows++;
+        }
+    }
+
+    /**
+     * Visão somente leitura sobre o arquivo mapeado.
+     */
+    private static class MappedDataset implements EncodedDataset {
+        private final FloatBuffer[] columns = new FloatBuffer[COLUMNS];
+        private final int rows;
+
+        MappedDataset(MappedByteBuffer mapped, int rows) {
+            this.rows = rows;
+            for (int column = 0; column < COLUMNS; column++) {
+                ByteBuffer slice = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                slice.position(HEADER_SIZE + column * rows * 4);
+                slice.limit(HEADER_SIZE + (column + 1) * rows * 4);
+                columns[column] = slice.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+            }
+        }
+
+        @Override
+        public int size() {
+            return rows;
+        }
+
+        @Override
+        public void readInputs(int row, double[] dst) {
+            for (int column = 0; column < COLUMNS - 1; column++) {
+                dst[column] = columns[column].get(row);
+            }
+        }
+
+        @Override
+        public double label(int row) {
+            return columns[COLUMNS - 1].get(row);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Codificação das 16 entradas (e do rótulo y) do Bank Marketing.
+ * Concentra os vocabulários das colunas categóricas, os codificadores de
+ * hash perfeito de cada coluna e as funções de normalização numérica, com
+ * tabelas pré-calculadas para os valores inteiros mais comuns.
+ *
+ * A normalização segue a {@link NormalizationSpec} ativa: a do arquivo
+ * indicado pela propriedade de sistema bank.normalization ou, se ela não
+ * for definida, a de {@link NormalizationSpec#DEFAULT_FILE} quando esse
+ * arquivo existe; caso contrário, as constantes de
+ * {@link NormalizationSpec#DEFAULT}. Treinamento, caches e pontuação usam
+ * a mesma especificação; a impressão digital ({@link #fingerprint()})
+ * muda com ela, o que invalida caches e acusa modelos de outra codificação.
+ */
+public class BankFeatureEncoder {
+
+    // Vocabulários das variáveis categóricas (a posição define o código)
+    static final String[] JOBS = {"admin.", "unknown", "unemployed", "management", "housemaid",
+                                  "entrepreneur", "student", "blue-collar", "self-employed",
+                                  "retired", "technician", "services"};
+    static final String[] MARITAL = {"married", "divorced", "single"};
+    static final String[] EDUCATION = {"unknown", "secondary", "primary", "tertiary"};
+    static final String[] CONTACT = {"unknown", "telephone", "cellular"};
+    static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun",
+                                    "jul", "aug", "sep", "oct", "nov", "dec"};
+    static final String[] POUTCOME = {"unknown", "other", "failure", "success"};
+    static final String[] BINARY = {"no", "yes"}; // "yes" -> 1.0, demais -> 0.0
+
+    // Um codificador por coluna, para que as estatísticas de desconhecidos sejam por coluna
+    static final CategoricalEncoder JOB = new CategoricalEncoder("job", JOBS);
+    static final CategoricalEncoder MARITAL_STATUS = new CategoricalEncoder("marital", MARITAL);
+    static final CategoricalEncoder EDUCATION_LEVEL = new CategoricalEncoder("education", EDUCATION);
+    static final CategoricalEncoder DEFAULT = new CategoricalEncoder("default", BINARY);
+    static final CategoricalEncoder HOUSING = new CategoricalEncoder("housing", BINARY);
+    static final CategoricalEncoder LOAN = new CategoricalEncoder("loan", BINARY);
+    static final CategoricalEncoder CONTACT_TYPE = new CategoricalEncoder("contact", CONTACT);
+    static final CategoricalEncoder MONTH = new CategoricalEncoder("month", MONTHS);
+    static final CategoricalEncoder PREVIOUS_OUTCOME = new CategoricalEncoder("poutcome", POUTCOME);
+    static final CategoricalEncoder SUBSCRIBED = new CategoricalEncoder("y", BINARY);
+
+    static final CategoricalEncoder[] CATEGORICAL_COLUMNS = {
+        JOB, MARITAL_STATUS, EDUCATION_LEVEL, DEFAULT, HOUSING, LOAN, CONTACT_TYPE, MONTH, PREVIOUS_OUTCOME, SUBSCRIBED
+    };
+
+    // Especificação ativa e tabelas derivadas dela (trocadas juntas em setSpec)
+    private static volatile NormalizationSpec spec = initialSpec();
+    private static volatile Tables tables = new Tables();
+
+    static NormalizationSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Troca a normalização de todo o processo. Deve ser chamado antes de
+     * codificar registros; caches e modelos existentes passam a ser
+     * considerados de outra codificação.
+     */
+    static synchronized void setSpec(NormalizationSpec newSpec) {
+        spec = newSpec;
+        tables = new Tables();
+    }
+
+    private static NormalizationSpec initialSpec() {
+        String filename = System.getProperty("bank.normalization");
+        if (filename == null && !Files.exists(Paths.get(NormalizationSpec.DEFAULT_FILE))) {
+            return NormalizationSpec.DEFAULT;
+        }
+        try {
+            return NormalizationSpec.load(filename != null ? filename : NormalizationSpec.DEFAULT_FILE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static double encodeAge(double age) {
+        return lookup(tables.age, 0, age, BankFeatureEncoder::normalizeAge);
+    }
+
+    static double encodeDay(double day) {
+        return lookup(tables.day, 0, day, BankFeatureEncoder::normalizeDay);
+    }
+
+    static double encodeCampaign(double campaign) {
+        return lookup(tables.campaign, 0, campaign, BankFeatureEncoder::normalizeCampaign);
+    }
+
+    static double encodePdays(double pdays) {
+        return lookup(tables.pdays, 1, pdays, BankFeatureEncoder::normalizePdays);
+    }
+
+    static double encodePrevious(double previous) {
+        return lookup(tables.previous, 0, previous, BankFeatureEncoder::normalizePrevious);
+    }
+
+    // Métodos de normalização (padrão: idade / 100, tanh(saldo / 10000), dia / 31,
+    // tanh(duração / 1000), tanh(campanhas / 10), tanh(pdays / 365) com -1 -> 0, tanh(anteriores / 10))
+    static double normalizeAge(double age) {
+        return spec.get(NormalizationSpec.AGE).apply(age);
+    }
+
+    static double normalizeBalance(double balance) {
+        return spec.get(NormalizationSpec.BALANCE).apply(balance);
+    }
+
+    static double normalizeDay(double day) {
+        return spec.get(NormalizationSpec.DAY).apply(day);
+    }
+
+    static double normalizeDuration(double duration) {
+        return spec.get(NormalizationSpec.DURATION).apply(duration);
+    }
+
+    static double normalizeCampaign(double campaign) {
+        return spec.get(NormalizationSpec.CAMPAIGN).apply(campaign);
+    }
+
+    static double normalizePdays(double pdays) {
+        return spec.get(NormalizationSpec.PDAYS).apply(pdays);
+    }
+
+    static double normalizePrevious(double previous) {
+        return spec.get(NormalizationSpec.PREVIOUS).apply(previous);
+    }
+
+    /**
+     * Total de valores categóricos desconhecidos em todas as colunas.
+     */
+    static long unknownCategoryCount() {
+        long total = 0;
+        for (CategoricalEncoder encoder : CATEGORICAL_COLUMNS) {
+            total += encoder.getUnknownCount();
+        }
+        return total;
+    }
+
+    /**
+     * Resumo dos valores desconhecidos por coluna, uma linha por coluna afetada.
+     */
+    static String unknownCategoryReport() {
+        StringBuilder report = new StringBuilder();
+        for (CategoricalEncoder encoder : CATEGORICAL_COLUMNS) {
+            long count = encoder.getUnknownCount();
+            if (count > 0) {
+                report.append("- ").append(encoder.getName()).append(": ").append(count).append(" valores desconhecidos");
+                Map<String, Long> values = encoder.getUnknownValues();
+                if (!values.isEmpty()) {
+                    report.append(' ').append(values);
+                }
+                report.append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Impressão digital da codificação atual. Inclui os vocabulários e o
+     * resultado das funções normalize* em valores de sonda, de modo que
+     * qualquer mudança nas constantes invalida caches e modelos derivados.
+     */
+    static long fingerprint() {
+        long hash = 0xcbf29ce484222325L; // FNV-1a 64 bits
+        String[][] vocabularies = {JOBS, MARITAL, EDUCATION, CONTACT, MONTHS, POUTCOME};
+        for (String[] vocabulary : vocabularies) {
+            for (String value : vocabulary) {
+                hash = fnv(hash, value.getBytes(StandardCharsets.UTF_8));
+                hash = fnv(hash, 0);
+            }
+            hash = fnv(hash, 1);
+        }
+
+        double[] probes = {-1, 0, 1, 7, 31, 45, 365, 999, 2500, -2500, 60000};
+        for (double probe : probes) {
+            double[] encoded = {
+                normalizeAge(probe),
+                normalizeBalance(probe),
+                normalizeDay(probe),
+                normalizeDuration(probe),
+                normalizeCampaign(probe),
+                normalizePdays(probe),
+                normalizePrevious(probe)
+            };
+            for (double value : encoded) {
+                long bits = Double.doubleToLongBits(value);
+                for (int shift = 0; shift < 64; shift += 8) {
+                    hash = fnv(hash, (int) (bits >>> shift));
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static long fnv(long hash, byte[] data) {
+        for (byte b : data) {
+            hash = fnv(hash, b);
+        }
+        return hash;
+    }
+
+    private static long fnv(long hash, int b) {
+        return (hash ^ (b & 0xff)) * 0x100000001b3L;
+    }
+
+    /**
+     * Tabelas para valores inteiros da especificação ativa: posição = valor - deslocamento.
+     */
+    private static final class Tables {
+        final double[] age = table(0, 127, BankFeatureEncoder::normalizeAge);
+        final double[] day = table(0, 31, BankFeatureEncoder::normalizeDay);
+        final double[] campaign = table(0, 63, BankFeatureEncoder::normalizeCampaign);
+        final double[] pdays = table(-1, 999, BankFeatureEncoder::normalizePdays);
+        final double[] previous = table(0, 63, BankFeatureEncoder::normalizePrevious);
+    }
+
+    private static double[] table(int min, int max, DoubleUnaryOperator normalize) {
+        double[] table = new double[max - min + 1];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = normalize.applyAsDouble(min + i);
+        }
+        return table;
+    }
+
+    /**
+     * Valor da tabela quando o número é inteiro e está na faixa; caso
+     * contrário, calcula a normalização.
+     */
+    private static double lookup(double[] table, int offset, double value, DoubleUnaryOperator normalize) {
+        int index = (int) value + offset;
+        if (index >= 0 && index < table.length && index - offset == value) {
+            return table[index];
+        }
+        return normalize.applyAsDouble(value);
+    }
+}
@@ -2,203 +2,165 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import javax.imageio.ImageIO;
 
 import org.neuroph.core.NeuralNetwork;
-import org.neuroph.core.data.DataSet;
-import org.neuroph.core.data.DataSetRow;
 import org.neuroph.nnet.MultiLayerPerceptron;
-import org.neuroph.nnet.learning.BackPropagation;
-import org.neuroph.util.TransferFunctionType;
 
 /**
  * Rede Neural para prever se o cliente fará aplicação bancária
  * Baseado no dataset Bank Marketing
- * Compilar: javac -cp "lib\*" src/BankMarketingPerceptron.java -d bin
+ * Compilar: javac -cp "lib\*" src/*.java -d bin
  * Executar: java -cp "lib\*;bin" BankMarketingPerceptron
+ * Validação cruzada: java -cp "lib\*;bin" BankMarketingPerceptron cv [csv] [k] [épocas] [threads]
  */
 public class BankMarketingPerceptron {
     
-    private static final int INPUT_SIZE = 16; // 16 atributos de entrada
-    private static final int OUTPUT_SIZE = 1; // 1 saída (yes/no)
+    static final int INPUT_SIZE = 16; // 16 atributos de entrada
+    static final int OUTPUT_SIZE = 1; // 1 saída (yes/no)
+    static final String METRICS_FILE = "training-metrics.jsonl"; // métricas por época e por fase
     
-    // Mapas para codificar variáveis categóricas
-    private static Map<String, Integer> jobMap = new HashMap<>();
-    private static Map<String, Integer> maritalMap = new HashMap<>();
-    private static Map<String, Integer> educationMap = new HashMap<>();
-    private static Map<String, Integer> contactMap = new HashMap<>();
-    private static Map<String, Integer> monthMap = new HashMap<>();
-    private static Map<String, Integer> poutcomeMap = new HashMap<>();
+    // Parada antecipada: 1/5 dos registros (estratificado) para validação, avaliada a cada
+    // 10 épocas; para após 20 avaliações sem melhora do F1 de validação
+    static final int VALIDATION_FOLDS = 5;
+    static final int VALIDATION_INTERVAL = 10;
+    static final int VALIDATION_PATIENCE = 20;
     
-    static {
-        // Inicializar mapas de codificação
-        String[] jobs = {"admin.", "unknown", "unemployed", "management", "housemaid", 
-                        "entrepreneur", "student", "blue-collar", "self-employed", 
-                        "retired", "technician", "services"};
-        for (int i = 0; i < jobs.length; i++) {
-            jobMap.put(jobs[i], i);
-        }
-        
-        String[] marital = {"married", "divorced", "single"};
-        for (int i = 0; i < marital.length; i++) {
-            maritalMap.put(marital[i], i);
-        }
-        
-        String[] education = {"unknown", "secondary", "primary", "tertiary"};
-        for (int i = 0; i < education.length; i++) {
-            educationMap.put(education[i], i);
-        }
-        
-        String[] contact = {"unknown", "telephone", "cellular"};
-        for (int i = 0; i < contact.length; i++) {
-            contactMap.put(contact[i], i);
-        }
-        
-        String[] months = {"jan", "feb", "mar", "apr", "may", "jun", 
-                          "jul", "aug", "sep", "oct", "nov", "dec"};
-        for (int i = 0; i < months.length; i++) {
-            monthMap.put(months[i], i);
-        }
-        
-        String[] poutcome = {"unknown", "other", "failure", "success"};
-        for (int i = 0; i < poutcome.length; i++) {
-            poutcomeMap.put(poutcome[i], i);
-        }
-    }
+    // Épocas balanceadas: 3 negativos por positivo, 1/4 deles os de maior erro na última
+    // passagem (em bank.csv, F1 de validação igual ou maior em ~1/3 do tempo; ver ImbalanceSampler)
+    static final double NEGATIVE_RATIO = 3.0;
+    static final double HARD_NEGATIVE_FRACTION = 0.25;
+    
+    // Análise de cortes: custo de um contato e valor de uma conversão (valores de referência
+    // da campanha, ajustáveis pelo ThresholdSweep) e precisão desejada pela equipe de marketing
+    static final double CONTACT_COST = 5.0;
+    static final double CONVERSION_VALUE = 50.0;
+    static final double TARGET_PRECISION = 0.70;
+    static final String THRESHOLD_CURVE_FILE = "threshold-curve.csv";
     
+    @SuppressWarnings("try") // fases medidas apenas pelo escopo do try
     public static void main(String[] args) {
         try {
-            System.out.println("=== SISTEMA DE PREDIÇÃO DE CAMPANHAS BANCÁRIAS ===");
-            System.out.println("Carregando dados de treinamento...");
-            
-            // Carregar dados de treinamento
-            DataSet trainingSet = loadDataSet("bank_assets/bank.csv");
-            System.out.println("Dados de treinamento carregados: " + trainingSet.size() + " registros");
-            
-            // Criar e treinar a rede neural
-            System.out.println("\nTreinando rede neural...");
-            MultiLayerPerceptron network = createAndTrainNetwork(trainingSet);
-            
-            // Salvar a rede treinada
-            network.save("bankPredictionNetwork.nnet");
-            System.out.println("Rede neural salva como 'bankPredictionNetwork.nnet'");
-            
-            // Carregar dados de teste (dataset completo)
-            System.out.println("\nCarregando dados de teste...");
-            DataSet testSet = loadDataSet("bank_assets/bank-full.csv");
-            System.out.println("Dados de teste carregados: " + testSet.size() + " registros");
+            // Modo de validação cruzada, sem a avaliação no bank-full.csv (que contém os registros de treino)
+            if (args.length > 0 && args[0].equals("cv")) {
+                CrossValidation.main(Arrays.copyOfRange(args, 1, args.length));
+                return;
+            }
             
-            // Avaliar o desempenho
-            System.out.println("\n=== AVALIAÇÃO DO MODELO ===");
-            evaluateModel(network, testSet);
+            try (TrainingMetrics metrics = new TrainingMetrics(METRICS_FILE)) {
+                System.out.println("=== SISTEMA DE PREDIÇÃO DE CAMPANHAS BANCÁRIAS ===");
+                System.out.println("Normalização: " + BankFeatureEncoder.getSpec().getSource());
+                System.out.println("Carregando dados de treinamento...");
+                
+                // Carregar dados de treinamento
+                EncodedDataset trainingSet;
+                try (TrainingMetrics.Phase phase = metrics.phase("carga")) {
+                    trainingSet = loadDataSet("bank_assets/bank.csv");
+                }
+                System.out.println("Dados de treinamento carregados: " + trainingSet.size() + " registros");
+                
+                // Criar e treinar a rede neural
+                System.out.println("\nTreinando rede neural...");
+                MultiLayerPerceptron network;
+                try (TrainingMetrics.Phase phase = metrics.phase("treinamento")) {
+                    network = createAndTrainNetwork(trainingSet, metrics);
+                }
+                
+                // Salvar a rede treinada
+                try (TrainingMetrics.Phase phase = metrics.phase("gravação")) {
+                    network.save("bankPredictionNetwork.nnet");
+                    ModelSnapshot.write(CompiledScorer.compile(network), "bankPredictionNetwork" + ModelSnapshot.SUFFIX);
+                }
+                System.out.println("Rede neural salva como 'bankPredictionNetwork.nnet' e 'bankPredictionNetwork.model'");
+                
+                // Avaliar o desempenho no dataset completo, lido em streaming (sem carregá-lo na memória)
+                System.out.println("\n=== AVALIAÇÃO DO MODELO ===");
+                try (TrainingMetrics.Phase phase = metrics.phase("avaliação")) {
+                    evaluateModel(network, "bank_assets/bank-full.csv", metrics);
+                }
+                
+                System.out.println("\nTEMPO POR FASE (detalhes em " + METRICS_FILE + "):");
+                System.out.print(metrics.phaseReport());
+            }
             
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
     
-    private static DataSet loadDataSet(String filename) throws IOException {
-        DataSet dataSet = new DataSet(INPUT_SIZE, OUTPUT_SIZE);
-        
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line = br.readLine(); // Pular cabeçalho
-            
-            while ((line = br.readLine()) != null) {
-                String[] values = line.replace("\"", "").split(";");
-                
-                if (values.length >= 17) {
-                    double[] inputs = new double[INPUT_SIZE];
-                    double[] outputs = new double[OUTPUT_SIZE];
-                    
-                    // Processar atributos de entrada
-                    inputs[0] = normalizeAge(Double.parseDouble(values[0])); // age
-                    inputs[1] = normalizeJob(values[1]); // job
-                    inputs[2] = normalizeMarital(values[2]); // marital
-                    inputs[3] = normalizeEducation(values[3]); // education
-                    inputs[4] = values[4].equals("yes") ? 1.0 : 0.0; // default
-                    inputs[5] = normalizeBalance(Double.parseDouble(values[5])); // balance
-                    inputs[6] = values[6].equals("yes") ? 1.0 : 0.0; // housing
-                    inputs[7] = values[7].equals("yes") ? 1.0 : 0.0; // loan
-                    inputs[8] = normalizeContact(values[8]); // contact
-                    inputs[9] = normalizeDay(Double.parseDouble(values[9])); // day
-                    inputs[10] = normalizeMonth(values[10]); // month
-                    inputs[11] = normalizeDuration(Double.parseDouble(values[11])); // duration
-                    inputs[12] = normalizeCampaign(Double.parseDouble(values[12])); // campaign
-                    inputs[13] = normalizePdays(Double.parseDouble(values[13])); // pdays
-                    inputs[14] = normalizePrevious(Double.parseDouble(values[14])); // previous
-                    inputs[15] = normalizePoutcome(values[15]); // poutcome
-                    
-                    // Processar saída
-                    outputs[0] = values[16].equals("yes") ? 1.0 : 0.0; // y
-                    
-                    dataSet.addRow(new DataSetRow(inputs, outputs));
-                }
-            }
-        }
-        
-        return dataSet;
+    /**
+     * Carrega os registros codificados a partir do cache binário mapeado em
+     * memória ({@link BankDataCache}); o CSV só é lido quando o cache não
+     * existe ou está desatualizado. Os registros são lidos direto das colunas
+     * mapeadas, sem montar um DataSet do Neuroph.
+     */
+    private static EncodedDataset loadDataSet(String filename) throws IOException {
+        return BankDataCache.open(filename);
     }
     
-    private static MultiLayerPerceptron createAndTrainNetwork(DataSet trainingSet) {
-        // Criar rede neural com arquitetura otimizada
-        MultiLayerPerceptron network = new MultiLayerPerceptron(
-            TransferFunctionType.SIGMOID, 
-            INPUT_SIZE, 32, 16, OUTPUT_SIZE
-        );
-        
-        // Configurar algoritmo de aprendizado
-        BackPropagation learningRule = new BackPropagation();
-        learningRule.setMaxIterations(5000);
-        learningRule.setMaxError(0.02);
-        learningRule.setLearningRate(0.1);
+    private static MultiLayerPerceptron createAndTrainNetwork(EncodedDataset dataset, TrainingMetrics metrics) {
+        // Criar rede neural com arquitetura otimizada (camadas ocultas 32 e 16)
+        TrainingConfig config = TrainingConfig.DEFAULT;
+        MultiLayerPerceptron network = config.createNetwork();
+        
+        // Configurar algoritmo de aprendizado (mini-lotes com gradientes calculados em paralelo):
+        // até 5000 épocas, erro máximo 0.02, taxa de aprendizado 0.1 e lotes de 32 registros,
+        // com a validação separada, épocas balanceadas e os pesos de maior F1 na validação
+        TrainingConfig.Recipe recipe = config.recipe(dataset, 42);
+        MiniBatchTrainer trainer = recipe.getTrainer();
+        
+        // Registrar cada época no arquivo de métricas, com progresso a cada 100 épocas
+        trainer.setEpochListener(metrics.epochListener(recipe.epochSize(), 100));
         
         // Treinar a rede
-        network.learn(trainingSet, learningRule);
+        recipe.train(network);
+        System.out.println("Treinamento concluído em " + trainer.getCurrentIteration() + " épocas ("
+            + String.format("%.2f", trainer.getAverageEpochMillis()) + " ms/época, erro "
+            + String.format("%.5f", trainer.getTotalError()) + ")"
+            + (trainer.isStoppedEarly() ? ", parado por falta de melhora na validação" : ""));
+        System.out.println("Melhores pesos: época " + trainer.getBestEpoch() + " (perda de validação "
+            + String.format("%.5f", trainer.getBestValidationLoss()) + ", F1 "
+            + String.format("%.4f", trainer.getBestValidationF1()) + " em " + recipe.getValidationRows().length + " registros)");
         
         return network;
     }
     
-    private static void evaluateModel(NeuralNetwork<?> network, DataSet testSet) {
-        int truePositives = 0;  // Previu SIM e era SIM
-        int falsePositives = 0; // Previu SIM e era NÃO
-        int trueNegatives = 0;  // Previu NÃO e era NÃO
-        int falseNegatives = 0; // Previu NÃO e era SIM
-        
-        for (DataSetRow row : testSet.getRows()) {
-            network.setInput(row.getInput());
-            network.calculate();
-            
-            double prediction = network.getOutput()[0];
-            double actual = row.getDesiredOutput()[0];
-            
-            boolean predictedPositive = prediction > 0.5;
-            boolean actualPositive = actual > 0.5;
-            
-            if (predictedPositive && actualPositive) {
-                truePositives++;
-            } else if (predictedPositive && !actualPositive) {
-                falsePositives++;
-            } else if (!predictedPositive && !actualPositive) {
-                trueNegatives++;
-            } else {
-                falseNegatives++;
-            }
+    private static void evaluateModel(NeuralNetwork<?> network, String testFile, TrainingMetrics metrics) throws IOException {
+        // Leitura, codificação e inferência (em todos os núcleos) em blocos, com memória constante; cada
+        // registro é calculado uma vez e alimenta todas as métricas e o histograma
+        CompiledScorer scorer = CompiledScorer.compile(network);
+        ConfusionMatrix matrix = new ConfusionMatrix();
+        ProbabilityHistogram histogram = new ProbabilityHistogram(20);
+        RocCurve roc = new RocCurve();
+        CalibrationCurve calibration = new CalibrationCurve(10);
+        ThresholdSweep sweep = new ThresholdSweep(RocCurve.DEFAULT_BINS); // em faixas: memória fixa
+        StreamingEvaluator evaluator = new StreamingEvaluator(scorer);
+        evaluator.evaluate(testFile, matrix, histogram, roc, calibration, sweep);
+        System.out.println("Dados de teste avaliados: " + evaluator.getRowsLabeled() + " registros");
+        metrics.recordPhase("avaliação.leitura", evaluator.getReadNanos());
+        metrics.recordPhase("avaliação.codificação", evaluator.getEncodeNanos());
+        metrics.recordPhase("avaliação.inferência", evaluator.getScoreNanos());
+        
+        if (BankFeatureEncoder.unknownCategoryCount() > 0) {
+            System.out.println("Categorias desconhecidas (codificadas como a categoria 0):");
+            System.out.print(BankFeatureEncoder.unknownCategoryReport());
         }
+        System.out.println();
         
-        // Calcular métricas
-        double accuracy = (double)(truePositives + trueNegatives) / 
-                         (truePositives + trueNegatives + falsePositives + falseNegatives);
+        long truePositives = matrix.getTruePositives();   // Previu SIM e era SIM
+        long falsePositives = matrix.getFalsePositives(); // Previu SIM e era NÃO
+        long trueNegatives = matrix.getTrueNegatives();   // Previu NÃO e era NÃO
+        long falseNegatives = matrix.getFalseNegatives(); // Previu NÃO e era SIM
         
-        double precision = truePositives > 0 ? (double)truePositives / (truePositives + falsePositives) : 0;
-        double recall = truePositives > 0 ? (double)truePositives / (truePositives + falseNegatives) : 0;
-        double f1Score = (precision + recall) > 0 ? 2 * (precision * recall) / (precision + recall) : 0;
+        // Calcular métricas
+        double accuracy = matrix.accuracy();
+        double precision = matrix.precision();
+        double recall = matrix.recall();
+        double f1Score = matrix.f1Score();
         
         // Exibir resultados
         System.out.println("MATRIZ DE CONFUSÃO:");
@@ -212,6 +174,19 @@ public class BankMarketingPerceptron {
         System.out.println("Precisão:  " + String.format("%.4f", precision) + " (" + String.format("%.2f", precision * 100) + "%)");
         System.out.println("Revocação: " + String.format("%.4f", recall) + " (" + String.format("%.2f", recall * 100) + "%)");
         System.out.println("F1 Score:  " + String.format("%.4f", f1Score) + " (" + String.format("%.2f", f1Score * 100) + "%)");
+        System.out.println("AUC ROC:   " + String.format("%.4f", roc.auc()));
+        System.out.println("Precisão média (PR): " + String.format("%.4f", roc.averagePrecision()));
+        
+        System.out.println("\nCALIBRAÇÃO (Brier " + String.format("%.4f", calibration.brierScore())
+            + ", erro de calibração " + String.format("%.4f", calibration.expectedCalibrationError()) + "):");
+        System.out.println("Faixa        Registros  Previsto  Observado");
+        for (int bin = 0; bin < calibration.getBinCount(); bin++) {
+            if (calibration.getCount(bin) > 0) {
+                System.out.println(String.format("%.1f - %.1f  %9d  %8.4f  %9.4f",
+                    (double) bin / calibration.getBinCount(), (double) (bin + 1) / calibration.getBinCount(),
+                    calibration.getCount(bin), calibration.meanPredicted(bin), calibration.observedRate(bin)));
+            }
+        }
         
         System.out.println("\nINTERPRETAÇÃO PARA CAMPANHA DE MARKETING:");
         System.out.println("- Acurácia: " + String.format("%.2f", accuracy * 100) + "% dos clientes são classificados corretamente");
@@ -220,25 +195,31 @@ public class BankMarketingPerceptron {
         System.out.println("- F1 Score: " + String.format("%.2f", f1Score * 100) + "% - métrica balanceada entre precisão e revocação");
         
         // Análise de custo-benefício
-        int totalContacts = truePositives + falsePositives;
+        long totalContacts = truePositives + falsePositives;
         double efficiency = totalContacts > 0 ? (double)truePositives / totalContacts : 0;
         System.out.println("\nANÁLISE DE EFICIÊNCIA DA CAMPANHA:");
         System.out.println("- Clientes contactados: " + totalContacts);
         System.out.println("- Clientes que farão aplicação: " + truePositives);
         System.out.println("- Eficiência da campanha: " + String.format("%.2f", efficiency * 100) + "%");
         System.out.println("- Economia: Com este modelo, você pode focar em " + totalContacts + " clientes");
-        System.out.println("  em vez de contactar todos os " + testSet.size() + " clientes do dataset");
+        System.out.println("  em vez de contactar todos os " + matrix.getTotal() + " clientes do dataset");
+        
+        // Todos os cortes numa única varredura das faixas de probabilidade
+        System.out.println("\nANÁLISE DE PONTOS DE CORTE (" + sweep.size() + " cortes):");
+        System.out.print(sweep.report(CONTACT_COST, CONVERSION_VALUE, TARGET_PRECISION));
+        sweep.export(THRESHOLD_CURVE_FILE, CONTACT_COST, CONVERSION_VALUE);
+        System.out.println("Curva completa salva em '" + THRESHOLD_CURVE_FILE + "'");
         
         // Gerar imagem de visualização
-        generateVisualization(network, testSet, truePositives, falsePositives, trueNegatives, falseNegatives);
+        generateVisualization(histogram, truePositives, falsePositives, trueNegatives, falseNegatives);
     }
     
     /**
      * Gera uma visualização gráfica dos resultados da predição bancária
      */
-    private static void generateVisualization(NeuralNetwork<?> network, DataSet testSet, 
-                                            int truePositives, int falsePositives, 
-                                            int trueNegatives, int falseNegatives) {
+    private static void generateVisualization(ProbabilityHistogram histogram, 
+                                            long truePositives, long falsePositives, 
+                                            long trueNegatives, long falseNegatives) {
         
         BufferedImage img = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2d = (Graphics2D) img.getGraphics();
@@ -256,7 +237,7 @@ public class BankMarketingPerceptron {
         drawConfusionMatrix(g2d, truePositives, falsePositives, trueNegatives, falseNegatives);
         
         // Desenhar gráfico de distribuição de probabilidades
-        drawProbabilityDistribution(g2d, network, testSet);
+        drawProbabilityDistribution(g2d, histogram);
         
         // Desenhar métricas
         drawMetrics(g2d, truePositives, falsePositives, trueNegatives, falseNegatives);
@@ -275,7 +256,7 @@ public class BankMarketingPerceptron {
     /**
      * Desenha a matriz de confusão
      */
-    private static void drawConfusionMatrix(Graphics2D g2d, int tp, int fp, int tn, int fn) {
+    private static void drawConfusionMatrix(Graphics2D g2d, long tp, long fp, long tn, long fn) {
         int startX = 50;
         int startY = 80;
         int cellSize = 120;
@@ -326,9 +307,9 @@ public class BankMarketingPerceptron {
     }
     
     /**
-     * Desenha a distribuição de probabilidades
+     * Desenha a distribuição de probabilidades de todo o conjunto de teste
      */
-    private static void drawProbabilityDistribution(Graphics2D g2d, NeuralNetwork<?> network, DataSet testSet) {
+    private static void drawProbabilityDistribution(Graphics2D g2d, ProbabilityHistogram histogram) {
         int startX = 400;
         int startY = 100;
         int width = 700;
@@ -347,35 +328,20 @@ public class BankMarketingPerceptron {
         g2d.drawString("Probabilidade", startX + width/2 - 30, startY + height + 20);
         g2d.drawString("Frequência", startX - 60, startY + height/2);
         
-        // Criar histograma
-        int[] histogram = new int[20]; // 20 bins para probabilidades de 0 a 1
-        int totalSamples = 0;
-        
-        for (DataSetRow row : testSet.getRows()) {
-            if (totalSamples >= 1000) break; // Limitar para performance
-            
-            network.setInput(row.getInput());
-            network.calculate();
-            double probability = network.getOutput()[0];
-            
-            int bin = Math.min((int)(probability * 20), 19);
-            histogram[bin]++;
-            totalSamples++;
-        }
-        
         // Encontrar máximo para normalização
-        int maxFreq = 0;
-        for (int freq : histogram) {
-            maxFreq = Math.max(maxFreq, freq);
+        int bins = histogram.getBinCount();
+        long maxFreq = 0;
+        for (int i = 0; i < bins; i++) {
+            maxFreq = Math.max(maxFreq, histogram.getCount(i));
         }
         
         // Desenhar barras do histograma
-        int barWidth = width / 20;
-        for (int i = 0; i < 20; i++) {
-            int barHeight = maxFreq > 0 ? (int)((double)histogram[i] / maxFreq * height) : 0;
+        int barWidth = width / bins;
+        for (int i = 0; i < bins; i++) {
+            int barHeight = maxFreq > 0 ? (int)((double)histogram.getCount(i) / maxFreq * height) : 0;
             
             // Cor baseada na região (vermelho para baixa prob, verde para alta prob)
-            float ratio = (float)i / 19;
+            float ratio = (float)i / (bins - 1);
             g2d.setColor(new Color(1.0f - ratio, ratio, 0.0f, 0.7f));
             g2d.fillRect(startX + i * barWidth, startY + height - barHeight, barWidth - 1, barHeight);
             
@@ -395,7 +361,7 @@ public class BankMarketingPerceptron {
     /**
      * Desenha as métricas de desempenho
      */
-    private static void drawMetrics(Graphics2D g2d, int tp, int fp, int tn, int fn) {
+    private static void drawMetrics(Graphics2D g2d, long tp, long fp, long tn, long fn) {
         int startX = 50;
         int startY = 450;
         
@@ -479,57 +445,4 @@ public class BankMarketingPerceptron {
         g2d.setColor(Color.BLACK);
         g2d.drawRect(x, y, barWidth, barHeight);
     }
-    
-    // Métodos de normalização
-    private static double normalizeAge(double age) {
-        return age / 100.0; // Normalizar idade para [0,1]
-    }
-    
-    private static double normalizeJob(String job) {
-        return jobMap.getOrDefault(job, 0) / 11.0; // 12 categorias
-    }
-    
-    private static double normalizeMarital(String marital) {
-        return maritalMap.getOrDefault(marital, 0) / 2.0; // 3 categorias
-    }
-    
-    private static double normalizeEducation(String education) {
-        return educationMap.getOrDefault(education, 0) / 3.0; // 4 categorias
-    }
-    
-    private static double normalizeBalance(double balance) {
-        return Math.tanh(balance / 10000.0); // Normalizar com tanh para lidar com valores extremos
-    }
-    
-    private static double normalizeContact(String contact) {
-        return contactMap.getOrDefault(contact, 0) / 2.0; // 3 categorias
-    }
-    
-    private static double normalizeDay(double day) {
-        return day / 31.0; // Normalizar dia do mês
-    }
-    
-    private static double normalizeMonth(String month) {
-        return monthMap.getOrDefault(month, 0) / 11.0; // 12 meses
-    }
-    
-    private static double normalizeDuration(double duration) {
-        return Math.tanh(duration / 1000.0); // Normalizar duração
-    }
-    
-    private static double normalizeCampaign(double campaign) {
-        return Math.tanh(campaign / 10.0); // Normalizar número de campanhas
-    }
-    
-    private static double normalizePdays(double pdays) {
-        return pdays == -1 ? 0 : Math.tanh(pdays / 365.0); // Normalizar dias
-    }
-    
-    private static double normalizePrevious(double previous) {
-        return Math.tanh(previous / 10.0); // Normalizar contatos anteriores
-    }
-    
-    private static double normalizePoutcome(String poutcome) {
-        return poutcomeMap.getOrDefault(poutcome, 0) / 3.0; // 4 categorias
-    }
 }
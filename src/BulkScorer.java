@@ -0,0 +1,232 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Pontuação em massa com o modelo quantizado ({@link QuantizedScorer}).
+ * Antes de pontuar, compara o modelo quantizado com o de precisão completa
+ * em todos os registros do arquivo (relatório de desvio: matrizes de
+ * confusão, F1, decisões alteradas, diferença das probabilidades e vazão).
+ * O modelo quantizado só é usado se |ΔF1| e |Δacurácia| ficarem dentro do
+ * limite; caso contrário a pontuação usa o modelo original.
+ *
+ * As escalas das entradas INT8 são calibradas no arquivo de treinamento.
+ * O arquivo de saída tem uma linha "registro;probabilidade" por registro,
+ * numerados a partir de 1 na ordem do CSV.
+ * Executar: java -cp "lib\*;bin" BulkScorer [csv] [modelo] [float32|int8] [limite de desvio] [saída]
+ */
+public class BulkScorer {
+
+    public static final double DEFAULT_MAX_DRIFT = 0.005;
+
+    private static final int ROWS_PER_BLOCK = 4096;
+    private static final String CALIBRATION_FILE = "bank_assets/bank.csv";
+
+    public static void main(String[] args) throws IOException {
+        String csv = args.length > 0 ? args[0] : "bank_assets/bank-full.csv";
+        String model = args.length > 1 ? args[1] : "bankPredictionNetwork" + ModelSnapshot.SUFFIX;
+        QuantizedScorer.Precision precision = args.length > 2
+            ? QuantizedScorer.Precision.valueOf(args[2].toUpperCase(Locale.ROOT)) : QuantizedScorer.Precision.FLOAT32;
+        double maxDrift = args.length > 3 ? Double.parseDouble(args[3]) : DEFAULT_MAX_DRIFT;
+        String output = args.length > 4 ? args[4] : null;
+
+        CompiledScorer full = ModelSnapshot.loadScorer(model);
+        EncodedDataset dataset = BankDataCache.open(csv);
+        QuantizedScorer quantized = QuantizedScorer.quantize(full, precision, BankDataCache.open(CALIBRATION_FILE));
+
+        System.out.println("=== PONTUAÇÃO EM MASSA (" + precision + ") ===");
+        System.out.println(dataset.size() + " registros de " + csv + "; modelo " + model);
+        DriftReport report = compare(full, quantized, dataset);
+        System.out.print(report);
+
+        boolean useQuantized = report.isWithinThreshold(maxDrift);
+        System.out.println(useQuantized
+            ? String.format("Desvio dentro do limite de %.4f: usando o modelo %s", maxDrift, precision)
+            : String.format("Desvio ACIMA do limite de %.4f: usando o modelo de precisão completa", maxDrift));
+
+        if (output != null) {
+            long start = System.nanoTime();
+            score(dataset, useQuantized ? quantized : null, full, output);
+            System.out.println(String.format("%d probabilidades gravadas em '%s' em %.2f s",
+                dataset.size(), output, (System.nanoTime() - start) / 1e9));
+        }
+    }
+
+    /**
+     * Pontua todos os registros com os dois modelos e compara os resultados.
+     */
+    public static DriftReport compare(CompiledScorer full, QuantizedScorer quantized, EncodedDataset dataset) {
+        DriftReport report = new DriftReport(quantized.getPrecision(), quantized.getWeightBytes(),
+            8L * weightCount(full));
+        CompiledScorer.Workspace fullWorkspace = full.newWorkspace();
+        QuantizedScorer.Workspace quantizedWorkspace = quantized.newWorkspace();
+        int width = full.getInputCount();
+        double[] inputs = new double[ROWS_PER_BLOCK * width];
+        double[] row = new double[width];
+        double[] fullOutputs = new double[ROWS_PER_BLOCK];
+        double[] quantizedOutputs = new double[ROWS_PER_BLOCK];
+
+        for (int first = 0; first < dataset.size(); first += ROWS_PER_BLOCK) {
+            int rows = Math.min(ROWS_PER_BLOCK, dataset.size() - first);
+            for (int r = 0; r < rows; r++) {
+                dataset.readInputs(first + r, row);
+                System.arraycopy(row, 0, inputs, r * width, width);
+            }
+
+            long start = System.nanoTime();
+            full.score(inputs, rows, fullOutputs, fullWorkspace);
+            long middle = System.nanoTime();
+            quantized.score(inputs, rows, quantizedOutputs, quantizedWorkspace);
+            report.fullNanos += middle - start;
+            report.quantizedNanos += System.nanoTime() - middle;
+
+            for (int r = 0; r < rows; r++) {
+                boolean actualPositive = dataset.label(first + r) > ConfusionMatrix.DEFAULT_THRESHOLD;
+                report.full.accept(fullOutputs[r], actualPositive);
+                report.quantized.accept(quantizedOutputs[r], actualPositive);
+                double difference = Math.abs(fullOutputs[r] - quantizedOutputs[r]);
+                report.maxDifference = Math.max(report.maxDifference, difference);
+                report.differenceSum += difference;
+                if ((fullOutputs[r] > ConfusionMatrix.DEFAULT_THRESHOLD)
+                        != (quantizedOutputs[r] > ConfusionMatrix.DEFAULT_THRESHOLD)) {
+                    report.changedDecisions++;
+                }
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Grava a probabilidade de cada registro; usa quantized se não for null.
+     */
+    static void score(EncodedDataset dataset, QuantizedScorer quantized, CompiledScorer full, String output)
+            throws IOException {
+        CompiledScorer.Workspace fullWorkspace = full.newWorkspace();
+        QuantizedScorer.Workspace quantizedWorkspace = quantized != null ? quantized.newWorkspace() : null;
+        int width = full.getInputCount();
+        double[] inputs = new double[ROWS_PER_BLOCK * width];
+        double[] row = new double[width];
+        double[] outputs = new double[ROWS_PER_BLOCK];
+
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            for (int first = 0; first < dataset.size(); first += ROWS_PER_BLOCK) {
+                int rows = Math.min(ROWS_PER_BLOCK, dataset.size() - first);
+                for (int r = 0; r < rows; r++) {
+                    dataset.readInputs(first + r, row);
+                    System.arraycopy(row, 0, inputs, r * width, width);
+                }
+                if (quantized != null) {
+                    quantized.score(inputs, rows, outputs, quantizedWorkspace);
+                } else {
+                    full.score(inputs, rows, outputs, fullWorkspace);
+                }
+                for (int r = 0; r < rows; r++) {
+                    out.write(Integer.toString(first + r + 1));
+                    out.write(';');
+                    out.write(Double.toString(outputs[r]));
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    private static long weightCount(CompiledScorer scorer) {
+        int[] sizes = scorer.getLayerSizes();
+        long count = 0;
+        for (int l = 1; l < sizes.length; l++) {
+            count += (long) sizes[l] * (sizes[l - 1] + 1);
+        }
+        return count;
+    }
+
+    /**
+     * Comparação entre o modelo de precisão completa e o quantizado.
+     */
+    public static class DriftReport {
+        private final QuantizedScorer.Precision precision;
+        private final long quantizedBytes;
+        private final long fullBytes;
+        private final ConfusionMatrix full = new ConfusionMatrix();
+        private final ConfusionMatrix quantized = new ConfusionMatrix();
+        private long changedDecisions;
+        private double maxDifference;
+        private double differenceSum;
+        private long fullNanos;
+        private long quantizedNanos;
+
+        DriftReport(QuantizedScorer.Precision precision, long quantizedBytes, long fullBytes) {
+            this.precision = precision;
+            this.quantizedBytes = quantizedBytes;
+            this.fullBytes = fullBytes;
+        }
+
+        public ConfusionMatrix getFullMatrix() {
+            return full;
+        }
+
+        public ConfusionMatrix getQuantizedMatrix() {
+            return quantized;
+        }
+
+        public double f1Drift() {
+            return quantized.f1Score() - full.f1Score();
+        }
+
+        public double accuracyDrift() {
+            return quantized.accuracy() - full.accuracy();
+        }
+
+        /**
+         * Registros cuja decisão (limiar 0.5) mudou com a quantização.
+         */
+        public long getChangedDecisions() {
+            return changedDecisions;
+        }
+
+        public double getMaxDifference() {
+            return maxDifference;
+        }
+
+        public double getMeanDifference() {
+            return full.getTotal() > 0 ? differenceSum / full.getTotal() : 0;
+        }
+
+        /**
+         * true se |ΔF1| e |Δacurácia| não passam de maxDrift.
+         */
+        public boolean isWithinThreshold(double maxDrift) {
+            return Math.abs(f1Drift()) <= maxDrift && Math.abs(accuracyDrift()) <= maxDrift;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%-22s %12s %12s %10s%n", "", "double", precision, "diferença"));
+            out.append(line("Verdadeiros positivos", full.getTruePositives(), quantized.getTruePositives()));
+            out.append(line("Falsos positivos", full.getFalsePositives(), quantized.getFalsePositives()));
+            out.append(line("Verdadeiros negativos", full.getTrueNegatives(), quantized.getTrueNegatives()));
+            out.append(line("Falsos negativos", full.getFalseNegatives(), quantized.getFalseNegatives()));
+            out.append(line("Acurácia", full.accuracy(), quantized.accuracy()));
+            out.append(line("Precisão", full.precision(), quantized.precision()));
+            out.append(line("Revocação", full.recall(), quantized.recall()));
+            out.append(line("F1 Score", full.f1Score(), quantized.f1Score()));
+            out.append(String.format("%-22s %12d %12d%n", "Bytes dos pesos", fullBytes, quantizedBytes));
+            out.append(String.format("%-22s %12.0f %12.0f%n", "Registros/s",
+                full.getTotal() / (fullNanos / 1e9), full.getTotal() / (quantizedNanos / 1e9)));
+            out.append(String.format("Decisões alteradas: %d de %d; diferença das probabilidades: média %.2e, máxima %.2e%n",
+                changedDecisions, full.getTotal(), getMeanDifference(), maxDifference));
+            return out.toString();
+        }
+
+        private static String line(String label, long full, long quantized) {
+            return String.format("%-22s %12d %12d %+10d%n", label, full, quantized, quantized - full);
+        }
+
+        private static String line(String label, double full, double quantized) {
+            return String.format("%-22s %12.4f %12.4f %+10.4f%n", label, full, quantized, quantized - full);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Calibração das probabilidades: em cada faixa, a probabilidade média
+ * prevista contra a fração de positivos observada. Também acumula o
+ * Brier score (erro quadrático médio da probabilidade).
+ */
+public class CalibrationCurve implements PredictionAccumulator {
+
+    private final long[] counts;
+    private final long[] positives;
+    private final double[] probabilitySums;
+    private double squaredErrorSum;
+
+    public CalibrationCurve(int bins) {
+        counts = new long[bins];
+        positives = new long[bins];
+        probabilitySums = new double[bins];
+    }
+
+    @Override
+    public void accept(double probability, boolean actualPositive) {
+        int bin = ProbabilityHistogram.bin(probability, counts.length);
+        counts[bin]++;
+        probabilitySums[bin] += probability;
+        double error = probability - (actualPositive ? 1.0 : 0.0);
+        squaredErrorSum += error * error;
+        if (actualPositive) {
+            positives[bin]++;
+        }
+    }
+
+    @Override
+    public CalibrationCurve newEmpty() {
+        return new CalibrationCurve(counts.length);
+    }
+
+    @Override
+    public void merge(PredictionAccumulator other) {
+        CalibrationCurve curve = (CalibrationCurve) other;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += curve.counts[i];
+            positives[i] += curve.positives[i];
+            probabilitySums[i] += curve.probabilitySums[i];
+        }
+        squaredErrorSum += curve.squaredErrorSum;
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    public double meanPredicted(int bin) {
+        return counts[bin] > 0 ? probabilitySums[bin] / counts[bin] : 0;
+    }
+
+    public double observedRate(int bin) {
+        return counts[bin] > 0 ? (double) positives[bin] / counts[bin] : 0;
+    }
+
+    public double brierScore() {
+        long total = total();
+        return total > 0 ? squaredErrorSum / total : 0;
+    }
+
+    /**
+     * Erro de calibração esperado: diferença média entre previsto e
+     * observado, ponderada pelo número de registros de cada faixa.
+     */
+    public double expectedCalibrationError() {
+        long total = total();
+        double error = 0;
+        for (int i = 0; i < counts.length; i++) {
+            error += counts[i] * Math.abs(meanPredicted(i) - observedRate(i));
+        }
+        return total > 0 ? error / total : 0;
+    }
+
+    private long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,235 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Codificador de uma coluna categórica com vocabulário fixo.
+ * Os valores ficam numa tabela de hash perfeito (sem colisões, encontrada
+ * na construção) consultada diretamente sobre fatias de bytes, e o código
+ * normalizado de cada categoria (índice / (n - 1)) é pré-calculado.
+ * Sempre que possível o hash usa só o tamanho e três bytes do valor
+ * (primeiro, do meio e último), o que basta para os vocabulários do
+ * dataset; a comparação final com a chave garante o resultado.
+ *
+ * Valores fora do vocabulário recebem o código da categoria 0, como o
+ * getOrDefault(valor, 0) usado antes, mas são contados por coluna; os
+ * primeiros valores distintos desconhecidos são guardados para diagnóstico.
+ */
+public class CategoricalEncoder {
+
+    private static final int MAX_TRACKED_UNKNOWN_VALUES = 32;
+    private static final int MAX_SEED_ATTEMPTS = 10000;
+    private static final int MAX_TABLE_GROWTH = 64; // tabela de até 64x o vocabulário
+
+    private final String name;
+    private final String[] values;
+    private final double[] codes;
+
+    // Tabela de hash perfeito: slot -> índice no vocabulário (-1 = vazio)
+    private final int[] slots;
+    private final byte[][] keys;
+    private final int mask;
+    private final int seed;
+    private final boolean sampled; // hash por amostra de bytes ou sobre todos os bytes
+
+    private final LongAdder unknownCount = new LongAdder();
+    private final Map<String, LongAdder> unknownValues = new ConcurrentHashMap<>();
+
+    public CategoricalEncoder(String name, String[] values) {
+        this.name = name;
+        this.values = values.clone();
+        this.codes = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            codes[i] = values.length > 1 ? i / (double) (values.length - 1) : 0.0;
+        }
+
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        // Procurar a menor tabela (potência de 2) e a semente sem colisões,
+        // primeiro com o hash por amostra e, se não houver, com o hash completo
+        int minimumSize = Integer.highestOneBit(Math.max(1, values.length * 2 - 1)) << 1;
+        int size = minimumSize;
+        boolean sampledHash = true;
+        int candidate = 0;
+        int[] table = null;
+        while (table == null) {
+            if (++candidate > MAX_SEED_ATTEMPTS) {
+                candidate = 1;
+                size <<= 1;
+                if (sampledHash && size > minimumSize * MAX_TABLE_GROWTH) {
+                    sampledHash = false;
+                    size = minimumSize;
+                }
+            }
+            table = tryBuild(encoded, size, candidate, sampledHash);
+        }
+
+        this.slots = table;
+        this.keys = new byte[size][];
+        for (int slot = 0; slot < size; slot++) {
+            keys[slot] = table[slot] >= 0 ? encoded[table[slot]] : null;
+        }
+        this.mask = size - 1;
+        this.seed = candidate;
+        this.sampled = sampledHash;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Vocabulário na ordem dos códigos.
+     */
+    public String[] getValues() {
+        return values.clone();
+    }
+
+    /**
+     * Índice da categoria em data[start, end), ou -1 se não pertencer ao vocabulário.
+     */
+    public int indexOf(byte[] data, int start, int end) {
+        int slot = hash(data, start, end, seed, sampled) & mask;
+        int index = slots[slot];
+        if (index < 0) {
+            return -1;
+        }
+        byte[] key = keys[slot];
+        if (key.length != end - start) {
+            return -1;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != data[start + i]) {
+                return -1;
+            }
+        }
+        return index;
+    }
+
+    public int indexOf(String value) {
+        int slot = hash(value, seed, sampled) & mask;
+        int index = slots[slot];
+        return index >= 0 && values[index].equals(value) ? index : -1;
+    }
+
+    /**
+     * Código normalizado da categoria; valores desconhecidos são contados e
+     * recebem o código da categoria 0.
+     */
+    public double encode(byte[] data, int start, int end) {
+        int index = indexOf(data, start, end);
+        if (index < 0) {
+            recordUnknown(new String(data, start, end - start, StandardCharsets.UTF_8));
+            return codes[0];
+        }
+        return codes[index];
+    }
+
+    public double encode(String value) {
+        int index = indexOf(value);
+        if (index < 0) {
+            recordUnknown(value);
+            return codes[0];
+        }
+        return codes[index];
+    }
+
+    public long getUnknownCount() {
+        return unknownCount.sum();
+    }
+
+    /**
+     * Contagem por valor desconhecido (até os primeiros 32 valores distintos).
+     */
+    public Map<String, Long> getUnknownValues() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : unknownValues.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().sum());
+        }
+        return snapshot;
+    }
+
+    public void resetStatistics() {
+        unknownCount.reset();
+        unknownValues.clear();
+    }
+
+    private void recordUnknown(String value) {
+        unknownCount.increment();
+        LongAdder counter = unknownValues.get(value);
+        if (counter == null && unknownValues.size() < MAX_TRACKED_UNKNOWN_VALUES) {
+            counter = unknownValues.computeIfAbsent(value, key -> new LongAdder());
+        }
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static int[] tryBuild(byte[][] encoded, int size, int seed, boolean sampled) {
+        int[] table = new int[size];
+        Arrays.fill(table, -1);
+        for (int i = 0; i < encoded.length; i++) {
+            int slot = hash(encoded[i], 0, encoded[i].length, seed, sampled) & (size - 1);
+            if (table[slot] >= 0) {
+                return null;
+            }
+            table[slot] = i;
+        }
+        return table;
+    }
+
+    private static int hash(byte[] data, int start, int end, int seed, boolean sampled) {
+        int length = end - start;
+        int h = seed * 31 + length;
+        if (sampled) {
+            if (length > 0) {
+                h = h * 31 + (data[start] & 0xff);
+                h = h * 31 + (data[start + length / 2] & 0xff);
+                h = h * 31 + (data[end - 1] & 0xff);
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                h = h * 31 + (data[i] & 0xff);
+            }
+        }
+        return mix(h);
+    }
+
+    /**
+     * Mesmo hash da versão em bytes para textos ASCII; caracteres fora do
+     * ASCII nunca coincidem com o vocabulário, que é verificado por equals.
+     */
+    private static int hash(String value, int seed, boolean sampled) {
+        int length = value.length();
+        int h = seed * 31 + length;
+        if (sampled) {
+            if (length > 0) {
+                h = h * 31 + (value.charAt(0) & 0xff);
+                h = h * 31 + (value.charAt(length / 2) & 0xff);
+                h = h * 31 + (value.charAt(length - 1) & 0xff);
+            }
+        } else {
+            for (int i = 0; i < length; i++) {
+                h = h * 31 + (value.charAt(i) & 0xff);
+            }
+        }
+        return mix(h);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
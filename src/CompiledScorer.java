@@ -0,0 +1,308 @@
+import java.util.List;
+
+import org.neuroph.core.Connection;
+import org.neuroph.core.Layer;
+import org.neuroph.core.NeuralNetwork;
+import org.neuroph.core.Neuron;
+import org.neuroph.core.transfer.Linear;
+import org.neuroph.core.transfer.Sigmoid;
+import org.neuroph.core.transfer.Tanh;
+import org.neuroph.core.transfer.TransferFunction;
+import org.neuroph.nnet.comp.neuron.BiasNeuron;
+
+/**
+ * Versão "compilada" de um perceptron multicamadas do Neuroph.
+ * Os pesos são copiados para vetores primitivos e a inferência é feita em
+ * lotes, sem percorrer objetos Neuron/Connection e sem alocar memória.
+ *
+ * A soma ponderada segue a mesma ordem do Neuroph (entradas em ordem e o
+ * bias por último) e a função de transferência reproduz os mesmos cortes,
+ * de modo que as saídas coincidem com as do Neuroph (diferença máxima
+ * esperada: 1e-12). A instância é imutável e pode ser compartilhada entre
+ * threads; cada thread usa o seu próprio {@link Workspace}.
+ */
+public class CompiledScorer {
+
+    public static final double TOLERANCE = 1e-12;
+
+    /** Número de registros processados por passada de cada camada. */
+    public static final int DEFAULT_BLOCK_SIZE = 256;
+
+    enum Activation { SIGMOID, TANH, LINEAR }
+
+    private final int[] layerSizes;    // neurônios por camada, sem bias
+    private final double[][] weights;  // [camada][neurônio * (entradas + 1) + entrada], bias por último
+    private final Activation activation;
+    private final double slope;
+    private final double amplitude;
+
+    CompiledScorer(int[] layerSizes, double[][] weights, Activation activation, double slope, double amplitude) {
+        this.layerSizes = layerSizes;
+        this.weights = weights;
+        this.activation = activation;
+        this.slope = slope;
+        this.amplitude = amplitude;
+    }
+
+    /**
+     * Extrai os pesos de uma rede totalmente conectada com bias (como as
+     * criadas por MultiLayerPerceptron). Todas as camadas após a de entrada
+     * devem usar a mesma função de transferência.
+     */
+    public static CompiledScorer compile(NeuralNetwork<?> network) {
+        List<Layer> layers = network.getLayers();
+        int[] sizes = new int[layers.size()];
+        for (int l = 0; l < layers.size(); l++) {
+            sizes[l] = regularNeuronCount(layers.get(l));
+        }
+
+        TransferFunction transfer = null;
+        double[][] weights = new double[layers.size() - 1][];
+        for (int l = 1; l < layers.size(); l++) {
+            Layer previous = layers.get(l - 1);
+            int inputs = sizes[l - 1];
+            double[] layerWeights = new double[sizes[l] * (inputs + 1)];
+
+            int neuronIndex = 0;
+            for (Neuron neuron : layers.get(l).getNeurons()) {
+                if (neuron instanceof BiasNeuron) {
+                    continue;
+                }
+                if (transfer == null) {
+                    transfer = neuron.getTransferFunction();
+                } else if (!sameTransfer(transfer, neuron.getTransferFunction())) {
+                    throw new IllegalArgumentException("Funções de transferência diferentes entre camadas não são suportadas");
+                }
+
+                int offset = neuronIndex * (inputs + 1);
+                for (Connection connection : neuron.getInputConnections()) {
+                    Neuron from = connection.getFromNeuron();
+                    int index = from instanceof BiasNeuron ? inputs : regularIndex(previous, from);
+                    layerWeights[offset + index] = connection.getWeight().getValue();
+                }
+                neuronIndex++;
+            }
+            weights[l - 1] = layerWeights;
+        }
+
+        if (transfer instanceof Sigmoid) {
+            return new CompiledScorer(sizes, weights, Activation.SIGMOID, ((Sigmoid) transfer).getSlope(), 1.0);
+        } else if (transfer instanceof Tanh) {
+            Tanh tanh = (Tanh) transfer;
+            return new CompiledScorer(sizes, weights, Activation.TANH, tanh.getSlope(), tanh.getAmplitude());
+        } else if (transfer instanceof Linear) {
+            return new CompiledScorer(sizes, weights, Activation.LINEAR, ((Linear) transfer).getSlope(), 1.0);
+        }
+        throw new IllegalArgumentException("Função de transferência não suportada: "
+            + (transfer == null ? "nenhuma" : transfer.getClass().getSimpleName()));
+    }
+
+    /**
+     * Copia os pesos de volta para as conexões de uma rede com a mesma
+     * topologia (por exemplo, a rede da qual este scorer foi extraído).
+     */
+    public void applyTo(NeuralNetwork<?> network) {
+        List<Layer> layers = network.getLayers();
+        if (layers.size() != layerSizes.length) {
+            throw new IllegalArgumentException("Topologia diferente: " + layers.size() + " camadas");
+        }
+        for (int l = 1; l < layers.size(); l++) {
+            Layer previous = layers.get(l - 1);
+            int inputs = layerSizes[l - 1];
+
+            int neuronIndex = 0;
+            for (Neuron neuron : layers.get(l).getNeurons()) {
+                if (neuron instanceof BiasNeuron) {
+                    continue;
+                }
+                int offset = neuronIndex * (inputs + 1);
+                for (Connection connection : neuron.getInputConnections()) {
+                    Neuron from = connection.getFromNeuron();
+                    int index = from instanceof BiasNeuron ? inputs : regularIndex(previous, from);
+                    connection.getWeight().setValue(weights[l - 1][offset + index]);
+                }
+                neuronIndex++;
+            }
+        }
+    }
+
+    int[] getLayerSizes() {
+        return layerSizes.clone();
+    }
+
+    /**
+     * Cópia dos pesos no layout [camada][neurônio * (entradas + 1) + entrada].
+     */
+    double[][] copyWeights() {
+        double[][] copy = new double[weights.length][];
+        for (int l = 0; l < weights.length; l++) {
+            copy[l] = weights[l].clone();
+        }
+        return copy;
+    }
+
+    Activation getActivation() {
+        return activation;
+    }
+
+    double getSlope() {
+        return slope;
+    }
+
+    double getAmplitude() {
+        return amplitude;
+    }
+
+    public int getInputCount() {
+        return layerSizes[0];
+    }
+
+    public int getOutputCount() {
+        return layerSizes[layerSizes.length - 1];
+    }
+
+    /**
+     * Buffers de trabalho de uma thread, para blocos de até blockSize registros.
+     */
+    public Workspace newWorkspace(int blockSize) {
+        return new Workspace(layerSizes, blockSize);
+    }
+
+    public Workspace newWorkspace() {
+        return newWorkspace(DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Calcula as saídas de rows registros.
+     *
+     * @param inputs  entradas em ordem de registro (rows * getInputCount())
+     * @param outputs saídas em ordem de registro (rows * getOutputCount())
+     */
+    public void score(double[] inputs, int rows, double[] outputs, Workspace workspace) {
+        int inputCount = getInputCount();
+        int outputCount = getOutputCount();
+        for (int first = 0; first < rows; first += workspace.blockSize) {
+            int count = Math.min(workspace.blockSize, rows - first);
+
+            // Transpor o bloco para o layout [atributo][registro]
+            double[] in = workspace.activations[0];
+            for (int r = 0; r < count; r++) {
+                int source = (first + r) * inputCount;
+                for (int i = 0; i < inputCount; i++) {
+                    in[i * count + r] = inputs[source + i];
+                }
+            }
+
+            forward(count, workspace);
+
+            double[] out = workspace.activations[layerSizes.length - 1];
+            for (int r = 0; r < count; r++) {
+                for (int j = 0; j < outputCount; j++) {
+                    outputs[(first + r) * outputCount + j] = out[j * count + r];
+                }
+            }
+        }
+    }
+
+    /**
+     * Probabilidade (primeira saída) de um único registro.
+     */
+    public double score(double[] inputs, Workspace workspace) {
+        score(inputs, 1, workspace.single, workspace);
+        return workspace.single[0];
+    }
+
+    private void forward(int count, Workspace workspace) {
+        for (int l = 1; l < layerSizes.length; l++) {
+            double[] in = workspace.activations[l - 1];
+            double[] out = workspace.activations[l];
+            double[] w = weights[l - 1];
+            int inputs = layerSizes[l - 1];
+
+            for (int j = 0; j < layerSizes[l]; j++) {
+                int offset = j * (inputs + 1);
+                int base = j * count;
+
+                // Acumular coluna a coluna: o laço interno sobre registros é vetorizável pelo JIT
+                for (int r = 0; r < count; r++) {
+                    out[base + r] = 0.0;
+                }
+                for (int i = 0; i < inputs; i++) {
+                    double weight = w[offset + i];
+                    int column = i * count;
+                    for (int r = 0; r < count; r++) {
+                        out[base + r] += weight * in[column + r];
+                    }
+                }
+                double bias = w[offset + inputs];
+                for (int r = 0; r < count; r++) {
+                    out[base + r] = activate(out[base + r] + bias);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mesmas fórmulas e cortes de Sigmoid/Tanh/Linear do Neuroph.
+     */
+    private double activate(double net) {
+        switch (activation) {
+            case SIGMOID:
+                if (net > 100) return 1.0;
+                if (net < -100) return 0.0;
+                return 1.0 / (1.0 + Math.exp(-slope * net));
+            case TANH:
+                if (Math.abs(net) * slope > 100) return Math.signum(net) * 1.0;
+                double e = Math.exp(2 * slope * net);
+                return amplitude * ((e - 1) / (e + 1));
+            default:
+                return slope * net;
+        }
+    }
+
+    private static boolean sameTransfer(TransferFunction a, TransferFunction b) {
+        return a.getClass() == b.getClass();
+    }
+
+    private static int regularNeuronCount(Layer layer) {
+        int count = 0;
+        for (Neuron neuron : layer.getNeurons()) {
+            if (!(neuron instanceof BiasNeuron)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int regularIndex(Layer layer, Neuron neuron) {
+        int index = 0;
+        for (Neuron candidate : layer.getNeurons()) {
+            if (candidate == neuron) {
+                return index;
+            }
+            if (!(candidate instanceof BiasNeuron)) {
+                index++;
+            }
+        }
+        throw new IllegalArgumentException("Conexão de um neurônio fora da camada anterior");
+    }
+
+    /**
+     * Ativações intermediárias de um bloco, no layout [neurônio][registro].
+     * Não é thread-safe: cada thread deve ter o seu.
+     */
+    public static class Workspace {
+        final int blockSize;
+        final double[][] activations;
+        final double[] single;
+
+        Workspace(int[] layerSizes, int blockSize) {
+            this.blockSize = blockSize;
+            this.activations = new double[layerSizes.length][];
+            for (int l = 0; l < layerSizes.length; l++) {
+                activations[l] = new double[layerSizes[l] * blockSize];
+            }
+            this.single = new double[layerSizes[layerSizes.length - 1]];
+        }
+    }
+}
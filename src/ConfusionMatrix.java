@@ -0,0 +1,102 @@
+/**
+ * Contadores TP/FP/TN/FN de uma classificação binária (long, para
+ * avaliações em streaming de arquivos com mais de 2^31 registros).
+ * Cada thread acumula a sua própria matriz, que depois são somadas com
+ * {@link #merge(ConfusionMatrix)}.
+ */
+public class ConfusionMatrix implements PredictionAccumulator {
+
+    public static final double DEFAULT_THRESHOLD = 0.5;
+
+    private final double threshold; // probabilidade acima da qual a previsão é SIM
+
+    private long truePositives;  // Previu SIM e era SIM
+    private long falsePositives; // Previu SIM e era NÃO
+    private long trueNegatives;  // Previu NÃO e era NÃO
+    private long falseNegatives; // Previu NÃO e era SIM
+
+    public ConfusionMatrix() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public ConfusionMatrix(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public void accept(double probability, boolean actualPositive) {
+        add(probability > threshold, actualPositive);
+    }
+
+    @Override
+    public ConfusionMatrix newEmpty() {
+        return new ConfusionMatrix(threshold);
+    }
+
+    @Override
+    public void merge(PredictionAccumulator other) {
+        merge((ConfusionMatrix) other);
+    }
+
+    public void add(boolean predictedPositive, boolean actualPositive) {
+        if (predictedPositive && actualPositive) {
+            truePositives++;
+        } else if (predictedPositive && !actualPositive) {
+            falsePositives++;
+        } else if (!predictedPositive && !actualPositive) {
+            trueNegatives++;
+        } else {
+            falseNegatives++;
+        }
+    }
+
+    public ConfusionMatrix merge(ConfusionMatrix other) {
+        truePositives += other.truePositives;
+        falsePositives += other.falsePositives;
+        trueNegatives += other.trueNegatives;
+        falseNegatives += other.falseNegatives;
+        return this;
+    }
+
+    public long getTruePositives() {
+        return truePositives;
+    }
+
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    public long getTrueNegatives() {
+        return trueNegatives;
+    }
+
+    public long getFalseNegatives() {
+        return falseNegatives;
+    }
+
+    public long getTotal() {
+        return truePositives + falsePositives + trueNegatives + falseNegatives;
+    }
+
+    public double accuracy() {
+        return (double)(truePositives + trueNegatives) / getTotal();
+    }
+
+    public double precision() {
+        return truePositives > 0 ? (double)truePositives / (truePositives + falsePositives) : 0;
+    }
+
+    public double recall() {
+        return truePositives > 0 ? (double)truePositives / (truePositives + falseNegatives) : 0;
+    }
+
+    public double f1Score() {
+        double precision = precision();
+        double recall = recall();
+        return (precision + recall) > 0 ? 2 * (precision * recall) / (precision + recall) : 0;
+    }
+}
@@ -0,0 +1,226 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neuroph.nnet.MultiLayerPerceptron;
+
+/**
+ * Validação cruzada estratificada em k partes. Os registros são codificados
+ * uma vez ({@link BankDataCache}) e compartilhados, somente leitura, por
+ * todas as partes; cada parte é apenas uma lista de índices, com a mesma
+ * proporção de "yes" do conjunto completo. As k redes são treinadas ao
+ * mesmo tempo, uma por thread, com a mesma receita do modelo publicado
+ * ({@link TrainingConfig#recipe}: validação interna, épocas balanceadas e
+ * parada antecipada), e cada uma é avaliada na parte que ficou fora do seu
+ * treinamento, com as mesmas métricas de BankMarketingPerceptron.evaluateModel.
+ *
+ * Executar: java -cp "lib\*;bin" CrossValidation [csv] [k] [épocas] [threads]
+ */
+public class CrossValidation {
+
+    static final String[] METRICS = {"Acurácia", "Precisão", "Revocação", "F1 Score", "AUC ROC", "Precisão média", "Brier"};
+
+    private final TrainingConfig config;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = 42;
+
+    public CrossValidation(TrainingConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String csv = args.length > 0 ? args[0] : "bank_assets/bank.csv";
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : TrainingConfig.DEFAULT.getMaxIterations();
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        EncodedDataset dataset = BankDataCache.open(csv);
+        TrainingConfig config = TrainingConfig.DEFAULT.withMaxIterations(epochs);
+        System.out.println("=== VALIDAÇÃO CRUZADA (" + k + " partes) ===");
+        System.out.println(dataset.size() + " registros de " + csv + "; configuração " + config);
+
+        CrossValidation validation = new CrossValidation(config);
+        validation.setThreads(threads);
+        long start = System.nanoTime();
+        double[][] results = validation.run(dataset, k);
+        System.out.println(String.format("Validação concluída em %.1f s", (System.nanoTime() - start) / 1e9));
+        System.out.println();
+        System.out.print(report(results));
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Divide os índices em k partes estratificadas pelo rótulo, cada uma em
+     * ordem crescente (leitura sequencial do cache).
+     */
+    public static int[][] stratifiedFolds(EncodedDataset dataset, int k, long seed) {
+        if (k < 2 || k > dataset.size()) {
+            throw new IllegalArgumentException("Número de partes inválido: " + k);
+        }
+        int positiveCount = 0;
+        for (int row = 0; row < dataset.size(); row++) {
+            if (dataset.label(row) > 0.5) {
+                positiveCount++;
+            }
+        }
+        int[] positives = new int[positiveCount];
+        int[] negatives = new int[dataset.size() - positiveCount];
+        for (int row = 0, p = 0, n = 0; row < dataset.size(); row++) {
+            if (dataset.label(row) > 0.5) {
+                positives[p++] = row;
+            } else {
+                negatives[n++] = row;
+            }
+        }
+        Random random = new Random(seed);
+        shuffle(positives, random);
+        shuffle(negatives, random);
+
+        // Distribuir cada classe em rodízio; os negativos continuam de onde os positivos pararam
+        int[] sizes = new int[k];
+        int[] fold = new int[dataset.size()];
+        for (int i = 0; i < positives.length; i++) {
+            fold[positives[i]] = i % k;
+            sizes[i % k]++;
+        }
+        for (int i = 0; i < negatives.length; i++) {
+            int f = (positives.length + i) % k;
+            fold[negatives[i]] = f;
+            sizes[f]++;
+        }
+
+        int[][] folds = new int[k][];
+        int[] filled = new int[k];
+        for (int f = 0; f < k; f++) {
+            folds[f] = new int[sizes[f]];
+        }
+        for (int row = 0; row < dataset.size(); row++) {
+            folds[fold[row]][filled[fold[row]]++] = row;
+        }
+        return folds;
+    }
+
+    /**
+     * Índices de todas as partes exceto validationFold, na ordem das partes.
+     */
+    public static int[] trainingRows(int[][] folds, int validationFold) {
+        int size = 0;
+        for (int f = 0; f < folds.length; f++) {
+            if (f != validationFold) {
+                size += folds[f].length;
+            }
+        }
+        int[] rows = new int[size];
+        for (int f = 0, position = 0; f < folds.length; f++) {
+            if (f != validationFold) {
+                System.arraycopy(folds[f], 0, rows, position, folds[f].length);
+                position += folds[f].length;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Treina e avalia as k partes; retorna, para cada parte, os valores na ordem de {@link #METRICS}.
+     */
+    public double[][] run(final EncodedDataset dataset, int k) {
+        final int[][] folds = stratifiedFolds(dataset, k, seed);
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (int f = 0; f < k; f++) {
+            final int fold = f;
+            tasks.add(() -> trainFold(dataset, folds, fold));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, k)));
+        try {
+            List<Future<double[]>> futures = executor.invokeAll(tasks);
+            double[][] results = new double[k][];
+            for (int f = 0; f < k; f++) {
+                results[f] = futures.get(f).get();
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Validação cruzada interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha no treinamento de uma parte", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private double[] trainFold(EncodedDataset dataset, int[][] folds, int fold) {
+        TrainingConfig.Recipe recipe = config.recipe(dataset, trainingRows(folds, fold), seed + fold);
+        MiniBatchTrainer trainer = recipe.getTrainer();
+        trainer.setThreads(1);
+
+        MultiLayerPerceptron network = config.createNetwork();
+        recipe.train(network);
+
+        ConfusionMatrix matrix = new ConfusionMatrix();
+        RocCurve roc = new RocCurve();
+        CalibrationCurve calibration = new CalibrationCurve(10);
+        ParallelEvaluator.evaluateSequential(CompiledScorer.compile(network),
+            EncodedDataset.subset(dataset, folds[fold]), matrix, roc, calibration);
+
+        System.out.println(String.format("Parte %d: %d épocas (melhor %d), erro %.5f, F1 %.4f", fold + 1,
+            trainer.getCurrentIteration(), trainer.getBestEpoch(), trainer.getTotalError(), matrix.f1Score()));
+        return new double[] {
+            matrix.accuracy(), matrix.precision(), matrix.recall(), matrix.f1Score(),
+            roc.auc(), roc.averagePrecision(), calibration.brierScore()
+        };
+    }
+
+    /**
+     * Tabela com as métricas de cada parte e a média ± desvio padrão amostral.
+     */
+    static String report(double[][] results) {
+        StringBuilder out = new StringBuilder(String.format("%-16s", "Métrica"));
+        for (int f = 0; f < results.length; f++) {
+            out.append(String.format("%9s", "Parte " + (f + 1)));
+        }
+        out.append("   Média ± desvio\n");
+        for (int m = 0; m < METRICS.length; m++) {
+            double[] values = new double[results.length];
+            for (int f = 0; f < results.length; f++) {
+                values[f] = results[f][m];
+            }
+            double mean = Arrays.stream(values).average().orElse(0);
+            double squares = 0;
+            for (double value : values) {
+                squares += (value - mean) * (value - mean);
+            }
+            double std = values.length > 1 ? Math.sqrt(squares / (values.length - 1)) : 0;
+
+            out.append(String.format("%-16s", METRICS[m]));
+            for (double value : values) {
+                out.append(String.format("%9.4f", value));
+            }
+            out.append(String.format("   %.4f ± %.4f%n", mean, std));
+        }
+        return out.toString();
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
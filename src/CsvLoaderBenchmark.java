@@ -0,0 +1,166 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara a vazão do leitor em streaming ({@link BankCsvReader}) com o
+ * carregamento original baseado em BufferedReader + split + parseDouble.
+ * Executar: java -cp "lib\*;bin" CsvLoaderBenchmark [arquivo.csv] [repetições]
+ */
+public class CsvLoaderBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static double checksum; // evita que o JIT elimine o trabalho
+
+    // Mapas de codificação como no loader original (HashMap + getOrDefault)
+    private static final Map<String, Integer> jobMap = legacyMap(BankFeatureEncoder.JOBS);
+    private static final Map<String, Integer> maritalMap = legacyMap(BankFeatureEncoder.MARITAL);
+    private static final Map<String, Integer> educationMap = legacyMap(BankFeatureEncoder.EDUCATION);
+    private static final Map<String, Integer> contactMap = legacyMap(BankFeatureEncoder.CONTACT);
+    private static final Map<String, Integer> monthMap = legacyMap(BankFeatureEncoder.MONTHS);
+    private static final Map<String, Integer> poutcomeMap = legacyMap(BankFeatureEncoder.POUTCOME);
+
+    public static void main(String[] args) throws IOException {
+        String filename = args.length > 0 ? args[0] : "bank_assets/bank.csv";
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long fileBytes = new File(filename).length();
+
+        System.out.println("=== BENCHMARK DE CARREGAMENTO CSV ===");
+        System.out.println("Arquivo: " + filename + " (" + fileBytes / 1024 + " KB)");
+
+        verifySameEncoding(filename);
+
+        // Aquecimento do JIT
+        for (int i = 0; i < 5; i++) {
+            loadLegacy(filename);
+            loadStreaming(filename);
+        }
+
+        report("Original (split/parseDouble)", filename, fileBytes, repetitions, false);
+        report("Streaming (bytes/NIO)       ", filename, fileBytes, repetitions, true);
+    }
+
+    private static void report(String name, String filename, long fileBytes, int repetitions,
+                               boolean streaming) throws IOException {
+        long rows = 0;
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        for (int i = 0; i < repetitions; i++) {
+            rows += streaming ? loadStreaming(filename) : loadLegacy(filename);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+
+        double seconds = elapsed / 1e9;
+        System.out.println(name + ": "
+            + String.format("%10.0f", rows / seconds) + " registros/s  "
+            + String.format("%7.1f", fileBytes * (double) repetitions / seconds / (1024 * 1024)) + " MB/s  "
+            + String.format("%8.1f", (double) allocated / rows) + " bytes alocados/registro");
+    }
+
+    private static long loadStreaming(String filename) throws IOException {
+        return new BankCsvReader().read(filename, (inputs, label) -> {
+            for (double value : inputs) {
+                checksum += value;
+            }
+            checksum += label;
+        });
+    }
+
+    /**
+     * Cópia do loadDataSet original, sem a montagem do DataSet, para medir
+     * apenas leitura, separação e conversão dos campos.
+     */
+    private static long loadLegacy(String filename) throws IOException {
+        long rows = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            String line = br.readLine(); // Pular cabeçalho
+
+            while ((line = br.readLine()) != null) {
+                double[] values = legacyRow(line);
+                if (values != null) {
+                    for (double value : values) {
+                        checksum += value;
+                    }
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static double[] legacyRow(String line) {
+        String[] values = line.replace("\"", "").split(";");
+        if (values.length < 17) {
+            return null;
+        }
+
+        double[] row = new double[BankMarketingPerceptron.INPUT_SIZE + 1];
+        row[0] = BankFeatureEncoder.normalizeAge(Double.parseDouble(values[0]));
+        row[1] = jobMap.getOrDefault(values[1], 0) / 11.0;
+        row[2] = maritalMap.getOrDefault(values[2], 0) / 2.0;
+        row[3] = educationMap.getOrDefault(values[3], 0) / 3.0;
+        row[4] = values[4].equals("yes") ? 1.0 : 0.0;
+        row[5] = BankFeatureEncoder.normalizeBalance(Double.parseDouble(values[5]));
+        row[6] = values[6].equals("yes") ? 1.0 : 0.0;
+        row[7] = values[7].equals("yes") ? 1.0 : 0.0;
+        row[8] = contactMap.getOrDefault(values[8], 0) / 2.0;
+        row[9] = BankFeatureEncoder.normalizeDay(Double.parseDouble(values[9]));
+        row[10] = monthMap.getOrDefault(values[10], 0) / 11.0;
+        row[11] = BankFeatureEncoder.normalizeDuration(Double.parseDouble(values[11]));
+        row[12] = BankFeatureEncoder.normalizeCampaign(Double.parseDouble(values[12]));
+        row[13] = BankFeatureEncoder.normalizePdays(Double.parseDouble(values[13]));
+        row[14] = BankFeatureEncoder.normalizePrevious(Double.parseDouble(values[14]));
+        row[15] = poutcomeMap.getOrDefault(values[15], 0) / 3.0;
+        row[16] = values[16].equals("yes") ? 1.0 : 0.0;
+        return row;
+    }
+
+    private static Map<String, Integer> legacyMap(String[] values) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            map.put(values[i], i);
+        }
+        return map;
+    }
+
+    /**
+     * Garante que os dois caminhos produzem exatamente a mesma codificação.
+     */
+    private static void verifySameEncoding(String filename) throws IOException {
+        final List<double[]> streamed = new ArrayList<>();
+        new BankCsvReader().read(filename, (inputs, label) -> {
+            double[] row = Arrays.copyOf(inputs, inputs.length + 1);
+            row[inputs.length] = label;
+            streamed.add(row);
+        });
+
+        int index = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            String line = br.readLine();
+            while ((line = br.readLine()) != null) {
+                double[] expected = legacyRow(line);
+                if (expected == null) {
+                    continue;
+                }
+                if (index >= streamed.size() || !Arrays.equals(expected, streamed.get(index))) {
+                    throw new IllegalStateException("Codificação divergente no registro " + (index + 1));
+                }
+                index++;
+            }
+        }
+        if (index != streamed.size()) {
+            throw new IllegalStateException("Número de registros divergente: " + index + " vs " + streamed.size());
+        }
+        System.out.println("Codificação idêntica ao loader original em " + index + " registros");
+    }
+}
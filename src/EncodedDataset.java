@@ -0,0 +1,76 @@
+import org.neuroph.core.data.DataSet;
+import org.neuroph.core.data.DataSetRow;
+
+/**
+ * Conjunto de registros já codificados (16 entradas normalizadas + rótulo),
+ * com acesso somente leitura por índice.
+ */
+public interface EncodedDataset {
+
+    int size();
+
+    /**
+     * Copia as 16 entradas do registro para dst.
+     */
+    void readInputs(int row, double[] dst);
+
+    double label(int row);
+
+    /**
+     * Visão somente leitura sobre um DataSet do Neuroph já carregado.
+     */
+    static EncodedDataset of(final DataSet dataSet) {
+        return new EncodedDataset() {
+            @Override
+            public int size() {
+                return dataSet.size();
+            }
+
+            @Override
+            public void readInputs(int row, double[] dst) {
+                System.arraycopy(dataSet.getRowAt(row).getInput(), 0, dst, 0, dst.length);
+            }
+
+            @Override
+            public double label(int row) {
+                return dataSet.getRowAt(row).getDesiredOutput()[0];
+            }
+        };
+    }
+
+    /**
+     * Visão somente leitura de algumas linhas de outro conjunto, sem copiar
+     * os registros; a linha i da visão é a linha rows[i] do original.
+     */
+    static EncodedDataset subset(final EncodedDataset dataset, final int[] rows) {
+        return new EncodedDataset() {
+            @Override
+            public int size() {
+                return rows.length;
+            }
+
+            @Override
+            public void readInputs(int row, double[] dst) {
+                dataset.readInputs(rows[row], dst);
+            }
+
+            @Override
+            public double label(int row) {
+                return dataset.label(rows[row]);
+            }
+        };
+    }
+
+    /**
+     * Monta um DataSet do Neuroph com todos os registros.
+     */
+    default DataSet toDataSet() {
+        DataSet dataSet = new DataSet(BankMarketingPerceptron.INPUT_SIZE, BankMarketingPerceptron.OUTPUT_SIZE);
+        for (int row = 0; row < size(); row++) {
+            double[] inputs = new double[BankMarketingPerceptron.INPUT_SIZE];
+            readInputs(row, inputs);
+            dataSet.addRow(new DataSetRow(inputs, new double[] {label(row)}));
+        }
+        return dataSet;
+    }
+}
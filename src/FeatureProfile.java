@@ -0,0 +1,550 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perfil das colunas do CSV, calculado numa única leitura e em paralelo:
+ * o arquivo é dividido em faixas de bytes, uma por thread, e cada thread
+ * lê a sua faixa em blocos de 1 MB e monta resumos parciais, que são
+ * combinados no final. A memória não depende do tamanho do arquivo:
+ *
+ * - colunas numéricas ({@link NumericSketch}): contagem, mínimo, máximo,
+ *   média e variância (Welford, combinadas pela fórmula de Chan) e um
+ *   histograma logarítmico com sinal para os quantis (32 faixas por
+ *   potência de 2, erro relativo de até 2,2%); a sentinela pdays = -1 é
+ *   contada à parte;
+ * - colunas categóricas: frequência de cada valor do vocabulário e dos
+ *   primeiros 64 valores desconhecidos distintos.
+ *
+ * O perfil é a base de {@link NormalizationSpec#fit}; main grava a
+ * especificação ajustada e compara a codificação atual com a ajustada.
+ * Executar: java -cp "lib\*;bin" FeatureProfile [csv] [especificação] [threads]
+ */
+public class FeatureProfile {
+
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int MAX_TRACKED_UNKNOWN_VALUES = 64;
+    private static final byte SEPARATOR = ';';
+    private static final byte QUOTE = '"';
+
+    // Colunas categóricas do CSV, na ordem de BankFeatureEncoder.CATEGORICAL_COLUMNS
+    private static final int[] CATEGORICAL_INDEXES = {1, 2, 3, 4, 6, 7, 8, 10, 15, 16};
+
+    private final String source;
+    private final NumericSketch[] numeric = new NumericSketch[NormalizationSpec.COLUMNS.length];
+    private final long[][] categoryCounts = new long[CATEGORICAL_INDEXES.length][];
+    private final List<Map<String, Long>> unknownValues = new ArrayList<>();
+    private final long[] untrackedUnknown = new long[CATEGORICAL_INDEXES.length];
+    private long rows;
+    private long rowsSkipped;
+    private long bytes;
+
+    FeatureProfile(String source) {
+        this.source = source;
+        for (int c = 0; c < numeric.length; c++) {
+            numeric[c] = new NumericSketch(c == NormalizationSpec.PDAYS ? NormalizationSpec.PDAYS_SENTINEL : Double.NaN);
+        }
+        for (int c = 0; c < CATEGORICAL_INDEXES.length; c++) {
+            categoryCounts[c] = new long[BankFeatureEncoder.CATEGORICAL_COLUMNS[c].size()];
+            unknownValues.add(new HashMap<>());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String csv = args.length > 0 ? args[0] : "bank_assets/bank.csv";
+        String output = args.length > 1 ? args[1] : NormalizationSpec.DEFAULT_FILE;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        FeatureProfile profile = profile(csv, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println("=== PERFIL DAS COLUNAS ===");
+        System.out.println(String.format("%d registros (%d ignorados), %.1f MB em %.2f s com %d threads (%.1f MB/s)",
+            profile.getRows(), profile.getRowsSkipped(), profile.getBytes() / 1e6, seconds, threads,
+            profile.getBytes() / 1e6 / seconds));
+        System.out.print(profile);
+
+        NormalizationSpec current = BankFeatureEncoder.getSpec();
+        NormalizationSpec fitted = NormalizationSpec.fit(profile);
+        System.out.println("\n=== NORMALIZAÇÃO: ATUAL (" + current.getSource() + ") x AJUSTADA ===");
+        System.out.print(profile.compare(current, fitted));
+
+        fitted.save(output);
+        System.out.println("\nEspecificação salva em '" + output + "'; os caches são recriados e os modelos"
+            + " gravados com a codificação anterior geram aviso até um novo treinamento.");
+    }
+
+    /**
+     * Lê o arquivo inteiro em até threads faixas paralelas.
+     */
+    public static FeatureProfile profile(final String filename, int threads) throws IOException {
+        long size = Files.size(Paths.get(filename));
+        int parts = (int) Math.max(1, Math.min(threads, size / CHUNK_SIZE + 1));
+        ExecutorService executor = Executors.newFixedThreadPool(parts);
+        try {
+            List<Callable<FeatureProfile>> tasks = new ArrayList<>();
+            for (int p = 0; p < parts; p++) {
+                final long start = size * p / parts;
+                final long end = size * (p + 1) / parts;
+                tasks.add(() -> {
+                    FeatureProfile partial = new FeatureProfile(filename);
+                    partial.readRange(filename, start, end);
+                    return partial;
+                });
+            }
+            FeatureProfile profile = new FeatureProfile(filename);
+            for (Future<FeatureProfile> future : executor.invokeAll(tasks)) {
+                profile.merge(future.get());
+            }
+            return profile;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Perfil interrompido", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("Falha no perfil de " + filename, cause);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Processa as linhas que começam entre os bytes start e end; a última
+     * pode terminar depois de end. Uma faixa que não começa no início do
+     * arquivo descarta o pedaço de linha anterior ao primeiro '\n'; o
+     * cabeçalho só é pulado pela faixa que começa em 0.
+     */
+    private void readRange(String filename, long start, long end) throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        int[] fieldStart = new int[BankCsvReader.COLUMN_COUNT];
+        int[] fieldEnd = new int[BankCsvReader.COLUMN_COUNT];
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long position = Math.max(0, start - 1); // o byte anterior diz se start já é início de linha
+            channel.position(position);
+            long bufferOffset = position;
+            boolean skipPartial = start > 0;
+            boolean skipHeader = start == 0;
+            int filled = 0;
+            boolean eof = false;
+
+            while (!eof && bufferOffset < end) {
+                if (filled == buffer.length) {
+                    byte[] larger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, larger, 0, filled);
+                    buffer = larger;
+                }
+                int n = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    filled += n;
+                }
+
+                int lineStart = 0;
+                for (int i = 0; i < filled && bufferOffset + lineStart < end; i++) {
+                    if (buffer[i] == '\n') {
+                        if (!skipPartial) {
+                            line(buffer, lineStart, i, skipHeader, fieldStart, fieldEnd);
+                        }
+                        skipPartial = false;
+                        skipHeader = false;
+                        lineStart = i + 1;
+                    }
+                }
+                if (eof && lineStart < filled && bufferOffset + lineStart < end) {
+                    if (!skipPartial) {
+                        line(buffer, lineStart, filled, skipHeader, fieldStart, fieldEnd);
+                    }
+                    lineStart = filled;
+                }
+
+                bufferOffset += lineStart;
+                filled -= lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, filled);
+            }
+        }
+    }
+
+    private void line(byte[] data, int start, int end, boolean skipHeader, int[] fieldStart, int[] fieldEnd) {
+        bytes += end - start + 1; // com o '\n'
+        if (end > start && data[end - 1] == '\r') {
+            end--;
+        }
+        if (skipHeader || end == start) {
+            return;
+        }
+
+        int fields = 0;
+        int fieldBegin = start;
+        for (int i = start; i <= end && fields < fieldStart.length; i++) {
+            if (i == end || data[i] == SEPARATOR) {
+                fieldStart[fields] = fieldBegin;
+                fieldEnd[fields] = i;
+                fields++;
+                fieldBegin = i + 1;
+            }
+        }
+        if (fields < fieldStart.length) {
+            rowsSkipped++;
+            return;
+        }
+
+        rows++;
+        for (int c = 0; c < numeric.length; c++) {
+            int field = NormalizationSpec.COLUMN_INDEXES[c];
+            numeric[c].add(number(data, fieldStart[field], fieldEnd[field]));
+        }
+        for (int c = 0; c < CATEGORICAL_INDEXES.length; c++) {
+            int field = CATEGORICAL_INDEXES[c];
+            int valueStart = fieldStart[field];
+            int valueEnd = fieldEnd[field];
+            while (valueStart < valueEnd && data[valueStart] == QUOTE) {
+                valueStart++;
+            }
+            while (valueEnd > valueStart && data[valueEnd - 1] == QUOTE) {
+                valueEnd--;
+            }
+            int index = BankFeatureEncoder.CATEGORICAL_COLUMNS[c].indexOf(data, valueStart, valueEnd);
+            if (index >= 0) {
+                categoryCounts[c][index]++;
+            } else {
+                addUnknown(c, new String(data, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8), 1);
+            }
+        }
+    }
+
+    private void addUnknown(int column, String value, long count) {
+        Map<String, Long> values = unknownValues.get(column);
+        Long previous = values.get(value);
+        if (previous != null || values.size() < MAX_TRACKED_UNKNOWN_VALUES) {
+            values.put(value, previous != null ? previous + count : count);
+        } else {
+            untrackedUnknown[column] += count;
+        }
+    }
+
+    /**
+     * Valor numérico do campo (sem aspas), ou NaN se não for um número.
+     */
+    private static double number(byte[] data, int start, int end) {
+        while (start < end && data[start] == QUOTE) {
+            start++;
+        }
+        while (end > start && data[end - 1] == QUOTE) {
+            end--;
+        }
+        int i = start;
+        boolean negative = i < end && data[i] == '-';
+        if (i < end && (data[i] == '-' || data[i] == '+')) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        for (; i < end && digits < 18; i++, digits++) {
+            byte b = data[i];
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+        }
+        if (i == end && digits > 0) {
+            return negative ? -value : value;
+        }
+        // Decimais, expoentes e números longos: caso raro
+        try {
+            return Double.parseDouble(new String(data, start, end - start, StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Soma um perfil parcial a este.
+     */
+    void merge(FeatureProfile other) {
+        rows += other.rows;
+        rowsSkipped += other.rowsSkipped;
+        bytes += other.bytes;
+        for (int c = 0; c < numeric.length; c++) {
+            numeric[c].merge(other.numeric[c]);
+        }
+        for (int c = 0; c < CATEGORICAL_INDEXES.length; c++) {
+            for (int i = 0; i < categoryCounts[c].length; i++) {
+                categoryCounts[c][i] += other.categoryCounts[c][i];
+            }
+            for (Map.Entry<String, Long> entry : other.unknownValues.get(c).entrySet()) {
+                addUnknown(c, entry.getKey(), entry.getValue());
+            }
+            untrackedUnknown[c] += other.untrackedUnknown[c];
+        }
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Linhas com menos de {@link BankCsvReader#COLUMN_COUNT} colunas.
+     */
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Resumo da coluna numérica column (índice de {@link NormalizationSpec#COLUMNS}).
+     */
+    public NumericSketch numeric(int column) {
+        return numeric[column];
+    }
+
+    /**
+     * Frequência de cada valor da coluna categórica (índice de
+     * BankFeatureEncoder.CATEGORICAL_COLUMNS), incluindo os desconhecidos rastreados.
+     */
+    public Map<String, Long> categories(int column) {
+        Map<String, Long> frequencies = new TreeMap<>(unknownValues.get(column));
+        String[] vocabulary = BankFeatureEncoder.CATEGORICAL_COLUMNS[column].getValues();
+        for (int i = 0; i < vocabulary.length; i++) {
+            frequencies.put(vocabulary[i], categoryCounts[column][i]);
+        }
+        return frequencies;
+    }
+
+    /**
+     * Percentis 1, 50 e 99 de cada coluna depois de codificados por cada
+     * especificação. Valores próximos de ±1 no p99 indicam saturação da
+     * tanh; um p50 perto de 0 com p99 baixo indica uma coluna esmagada.
+     */
+    public String compare(NormalizationSpec current, NormalizationSpec fitted) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-10s %-24s %-24s %26s %26s%n", "Coluna", "Atual", "Ajustada",
+            "Atual p1/p50/p99", "Ajustada p1/p50/p99"));
+        for (int c = 0; c < numeric.length; c++) {
+            out.append(String.format("%-10s %-24s %-24s %26s %26s%n", NormalizationSpec.COLUMNS[c],
+                current.get(c), fitted.get(c), encodedPercentiles(current.get(c), numeric[c]),
+                encodedPercentiles(fitted.get(c), numeric[c])));
+        }
+        return out.toString();
+    }
+
+    private static String encodedPercentiles(NormalizationSpec.Transform transform, NumericSketch sketch) {
+        if (sketch.getCount() == 0) {
+            return "-";
+        }
+        return String.format("%.3f / %.3f / %.3f", transform.apply(sketch.quantile(0.01)),
+            transform.apply(sketch.quantile(0.5)), transform.apply(sketch.quantile(0.99)));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-10s %9s %9s %9s %10s %10s %10s %10s %10s %10s %10s%n", "Coluna", "Valores",
+            "Sentinela", "Inválidos", "Mínimo", "p1", "p50", "p99", "Máximo", "Média", "Desvio"));
+        for (int c = 0; c < numeric.length; c++) {
+            NumericSketch s = numeric[c];
+            out.append(String.format("%-10s %9d %9d %9d %10.1f %10.1f %10.1f %10.1f %10.1f %10.2f %10.2f%n",
+                NormalizationSpec.COLUMNS[c], s.getCount(), s.getSentinelCount(), s.getInvalidCount(), s.getMin(),
+                s.quantile(0.01), s.quantile(0.5), s.quantile(0.99), s.getMax(), s.getMean(), s.getStandardDeviation()));
+        }
+        for (int c = 0; c < CATEGORICAL_INDEXES.length; c++) {
+            out.append(String.format("%-10s", BankFeatureEncoder.CATEGORICAL_COLUMNS[c].getName()));
+            for (Map.Entry<String, Long> entry : categories(c).entrySet()) {
+                out.append(String.format(" %s=%.1f%%", entry.getKey(), rows > 0 ? 100.0 * entry.getValue() / rows : 0));
+            }
+            if (untrackedUnknown[c] > 0) {
+                out.append(" outros desconhecidos=").append(untrackedUnknown[c]);
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Resumo combinável de uma coluna numérica. Os quantis vêm de um
+     * histograma de tamanho fixo: faixas logarítmicas (32 por potência de 2)
+     * para |x| entre 2^-32 e 2^64, separadas por sinal, e uma faixa para
+     * zero; cada quantil é o centro da sua faixa, limitado a [mín, máx].
+     */
+    public static final class NumericSketch {
+        private static final int SUB_BUCKETS_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKETS_BITS;
+        private static final int MIN_EXPONENT = -32;
+        private static final int MAX_EXPONENT = 63;
+        private static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+
+        private final double sentinel; // NaN = sem sentinela
+        private final long[] positive = new long[BUCKETS];
+        private final long[] negative = new long[BUCKETS];
+        private long zeros;
+        private long count;
+        private long sentinelCount;
+        private long invalidCount;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double mean;
+        private double m2;
+
+        NumericSketch(double sentinel) {
+            this.sentinel = sentinel;
+        }
+
+        void add(double value) {
+            if (Double.isNaN(value)) {
+                invalidCount++;
+                return;
+            }
+            if (value == sentinel) {
+                sentinelCount++;
+                return;
+            }
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+
+            int bucket = bucket(value);
+            if (bucket < 0) {
+                zeros++;
+            } else if (value > 0) {
+                positive[bucket]++;
+            } else {
+                negative[bucket]++;
+            }
+        }
+
+        void merge(NumericSketch other) {
+            if (other.count > 0) {
+                long total = count + other.count;
+                double delta = other.mean - mean;
+                mean += delta * other.count / total;
+                m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+                count = total;
+                min = Math.min(min, other.min);
+                max = Math.max(max, other.max);
+            }
+            sentinelCount += other.sentinelCount;
+            invalidCount += other.invalidCount;
+            zeros += other.zeros;
+            for (int i = 0; i < BUCKETS; i++) {
+                positive[i] += other.positive[i];
+                negative[i] += other.negative[i];
+            }
+        }
+
+        /**
+         * Faixa de |value|, ou -1 para valores abaixo de 2^-32 (zero).
+         */
+        private static int bucket(double value) {
+            double magnitude = Math.abs(value);
+            int exponent = Math.getExponent(magnitude);
+            if (exponent < MIN_EXPONENT) {
+                return -1;
+            }
+            if (exponent > MAX_EXPONENT) {
+                return BUCKETS - 1;
+            }
+            long mantissa = Double.doubleToRawLongBits(magnitude) >>> (52 - SUB_BUCKETS_BITS);
+            return (exponent - MIN_EXPONENT) * SUB_BUCKETS + (int) (mantissa & (SUB_BUCKETS - 1));
+        }
+
+        /**
+         * Centro (geométrico) da faixa de magnitude bucket.
+         */
+        private static double center(int bucket) {
+            int exponent = bucket / SUB_BUCKETS + MIN_EXPONENT;
+            int sub = bucket % SUB_BUCKETS;
+            return Math.scalb(1.0 + (sub + 0.5) / SUB_BUCKETS, exponent);
+        }
+
+        public double quantile(double q) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            long rank = (long) Math.floor(q * (count - 1)); // posição 0-based do valor procurado
+            double value = max;
+            long seen = 0;
+            found:
+            {
+                for (int i = BUCKETS - 1; i >= 0; i--) {
+                    seen += negative[i];
+                    if (seen > rank) {
+                        value = -center(i);
+                        break found;
+                    }
+                }
+                seen += zeros;
+                if (seen > rank) {
+                    value = 0;
+                    break found;
+                }
+                for (int i = 0; i < BUCKETS; i++) {
+                    seen += positive[i];
+                    if (seen > rank) {
+                        value = center(i);
+                        break found;
+                    }
+                }
+            }
+            return Math.max(min, Math.min(max, value));
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Ocorrências da sentinela (não entram nas demais estatísticas).
+         */
+        public long getSentinelCount() {
+            return sentinelCount;
+        }
+
+        public long getInvalidCount() {
+            return invalidCount;
+        }
+
+        public double getMin() {
+            return count > 0 ? min : Double.NaN;
+        }
+
+        public double getMax() {
+            return count > 0 ? max : Double.NaN;
+        }
+
+        public double getMean() {
+            return count > 0 ? mean : Double.NaN;
+        }
+
+        public double getStandardDeviation() {
+            return count > 1 ? Math.sqrt(m2 / (count - 1)) : Double.NaN;
+        }
+    }
+}
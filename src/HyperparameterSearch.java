@@ -0,0 +1,369 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neuroph.nnet.MultiLayerPerceptron;
+
+/**
+ * Busca de arquitetura e hiperparâmetros para o treinamento da rede.
+ * Gera configurações ({@link TrainingConfig}) por grade ou sorteio e
+ * treina várias ao mesmo tempo, uma por thread, com no máximo cpuBudget
+ * threads (cada {@link MiniBatchTrainer} usa uma única thread). Cada
+ * candidato treina com a receita do modelo publicado
+ * ({@link TrainingConfig#recipe}: épocas balanceadas e a mesma parte de
+ * validação, estratificada pelo rótulo) e é avaliado a cada
+ * evaluationInterval épocas nessa validação, com a mesma {@link ConfusionMatrix} da avaliação
+ * principal, e para ao convergir ou após patience avaliações sem melhora
+ * do F1. Na estratégia de halving sucessivo, a cada rodada só o melhor
+ * 1/halvingFactor dos candidatos continua, com mais épocas.
+ *
+ * O resultado é um ranking por F1 (desempate pela precisão), gravado em CSV.
+ * Executar: java -cp "lib\*;bin" HyperparameterSearch [grid|random|halving] [csv] [épocas] [threads] [candidatos] [ranking.csv]
+ */
+public class HyperparameterSearch {
+
+    public enum Strategy { GRID, RANDOM, HALVING }
+
+    // Espaço de busca
+    static final int[][] HIDDEN_LAYERS = {{16}, {32}, {16, 8}, {32, 16}, {64, 32}};
+    static final double[] LEARNING_RATES = {0.05, 0.1, 0.2};
+    static final int[] BATCH_SIZES = {16, 32, 64};
+
+    private int cpuBudget = Runtime.getRuntime().availableProcessors();
+    private int maxEpochs = 200;
+    private int evaluationInterval = 10;
+    private int patience = 3;
+    private int halvingFactor = 3;
+    private long seed = 42;
+
+    public static void main(String[] args) throws IOException {
+        Strategy strategy = args.length > 0 ? Strategy.valueOf(args[0].toUpperCase(Locale.ROOT)) : Strategy.HALVING;
+        String csv = args.length > 1 ? args[1] : "bank_assets/bank.csv";
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int candidates = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+        String leaderboard = args.length > 5 ? args[5] : "leaderboard.csv";
+
+        HyperparameterSearch search = new HyperparameterSearch();
+        search.setMaxEpochs(epochs);
+        search.setCpuBudget(threads);
+
+        List<TrainingConfig> configs = strategy == Strategy.RANDOM
+            ? search.randomConfigs(candidates) : search.gridConfigs();
+
+        System.out.println("=== BUSCA DE HIPERPARÂMETROS ===");
+        System.out.println("Estratégia: " + strategy + ", " + configs.size() + " candidatos, até " + epochs
+            + " épocas, " + threads + " threads");
+
+        long start = System.nanoTime();
+        List<Candidate> ranking = search.run(configs, BankDataCache.open(csv), strategy == Strategy.HALVING);
+        System.out.println(String.format("Busca concluída em %.1f s", (System.nanoTime() - start) / 1e9));
+
+        System.out.println(String.format("%-4s %-44s %7s %9s %9s %9s  %s",
+            "#", "configuração", "épocas", "precisão", "revocação", "F1", "situação"));
+        for (int i = 0; i < Math.min(10, ranking.size()); i++) {
+            Candidate candidate = ranking.get(i);
+            ConfusionMatrix matrix = candidate.getBestMatrix();
+            System.out.println(String.format("%-4d %-44s %7d %9.4f %9.4f %9.4f  %s", i + 1, candidate.getConfig(),
+                candidate.getEpochs(), matrix.precision(), matrix.recall(), matrix.f1Score(), candidate.getStatus()));
+        }
+
+        writeLeaderboard(ranking, leaderboard);
+        System.out.println("Ranking completo salvo em '" + leaderboard + "'");
+    }
+
+    public void setCpuBudget(int cpuBudget) {
+        this.cpuBudget = cpuBudget;
+    }
+
+    /**
+     * Épocas máximas por candidato (substitui o maxIterations das configurações).
+     */
+    public void setMaxEpochs(int maxEpochs) {
+        this.maxEpochs = maxEpochs;
+    }
+
+    public void setEvaluationInterval(int evaluationInterval) {
+        this.evaluationInterval = evaluationInterval;
+    }
+
+    public void setPatience(int patience) {
+        this.patience = patience;
+    }
+
+    public void setHalvingFactor(int halvingFactor) {
+        this.halvingFactor = halvingFactor;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Todas as combinações do espaço de busca.
+     */
+    public List<TrainingConfig> gridConfigs() {
+        List<TrainingConfig> configs = new ArrayList<>();
+        for (int[] hidden : HIDDEN_LAYERS) {
+            for (double learningRate : LEARNING_RATES) {
+                for (int batchSize : BATCH_SIZES) {
+                    configs.add(new TrainingConfig(hidden, learningRate, TrainingConfig.DEFAULT.getMaxError(),
+                        maxEpochs, batchSize));
+                }
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Configurações sorteadas: camadas ocultas de 4 a 64 neurônios (uma ou
+     * duas camadas), taxa log-uniforme entre 0.01 e 0.5 e lote do espaço de busca.
+     */
+    public List<TrainingConfig> randomConfigs(int count) {
+        Random random = new Random(seed);
+        List<TrainingConfig> configs = new ArrayList<>();
+        while (configs.size() < count) {
+            int first = 4 + random.nextInt(61);
+            int[] hidden = random.nextBoolean() ? new int[] {first} : new int[] {first, Math.max(2, first / 2)};
+            double learningRate = Math.exp(Math.log(0.01) + random.nextDouble() * (Math.log(0.5) - Math.log(0.01)));
+            learningRate = Math.round(learningRate * 1000) / 1000.0;
+            int batchSize = BATCH_SIZES[random.nextInt(BATCH_SIZES.length)];
+            TrainingConfig config = new TrainingConfig(hidden, learningRate, TrainingConfig.DEFAULT.getMaxError(),
+                maxEpochs, batchSize);
+            if (!configs.contains(config)) {
+                configs.add(config);
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Treina os candidatos e retorna o ranking, do melhor para o pior.
+     */
+    public List<Candidate> run(List<TrainingConfig> configs, EncodedDataset dataset, boolean halving) {
+        // Cada candidato com a sua receita; a mesma semente dá a todos a mesma parte
+        // estratificada de validação (~11% de positivos em bank.csv)
+        List<Candidate> candidates = new ArrayList<>();
+        for (TrainingConfig config : configs) {
+            candidates.add(new Candidate(config.withMaxIterations(maxEpochs), dataset));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, cpuBudget));
+        try {
+            if (!halving) {
+                advance(executor, candidates, maxEpochs);
+            } else {
+                // Rodadas com épocas multiplicadas por halvingFactor, terminando em maxEpochs
+                int rounds = 1;
+                for (long n = candidates.size(); n > 1; n = (n + halvingFactor - 1) / halvingFactor) {
+                    rounds++;
+                }
+                // Sem rodadas mais curtas que o intervalo de avaliação
+                while (rounds > 1 && maxEpochs / Math.pow(halvingFactor, rounds - 1) < evaluationInterval) {
+                    rounds--;
+                }
+                List<Candidate> alive = new ArrayList<>(candidates);
+                for (int round = 1; round <= rounds && !alive.isEmpty(); round++) {
+                    int epochs = round == rounds ? maxEpochs
+                        : (int) Math.max(evaluationInterval, maxEpochs / Math.pow(halvingFactor, rounds - round));
+                    advance(executor, alive, epochs);
+
+                    if (round < rounds) {
+                        alive.sort(RANKING);
+                        int keep = Math.max(1, (alive.size() + halvingFactor - 1) / halvingFactor);
+                        for (Candidate eliminated : alive.subList(keep, alive.size())) {
+                            if (!eliminated.isFinished()) {
+                                eliminated.finish("eliminado na rodada " + round);
+                            }
+                        }
+                        alive = new ArrayList<>(alive.subList(0, keep));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Candidate> ranking = new ArrayList<>(candidates);
+        Collections.sort(ranking, RANKING);
+        return ranking;
+    }
+
+    /**
+     * Treina em paralelo os candidatos ainda ativos até o número de épocas indicado.
+     */
+    private void advance(ExecutorService executor, List<Candidate> candidates, final int epochs) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (final Candidate candidate : candidates) {
+            if (!candidate.isFinished()) {
+                tasks.add(() -> {
+                    candidate.advance(epochs);
+                    return null;
+                });
+            }
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Busca interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha no treinamento de um candidato", e.getCause());
+        }
+    }
+
+    static final Comparator<Candidate> RANKING = (a, b) -> {
+        int byF1 = Double.compare(b.getBestMatrix().f1Score(), a.getBestMatrix().f1Score());
+        return byF1 != 0 ? byF1 : Double.compare(b.getBestMatrix().precision(), a.getBestMatrix().precision());
+    };
+
+    static void writeLeaderboard(List<Candidate> ranking, String filename) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8))) {
+            out.println("posicao;camadas;taxa;lote;epocas;melhor_epoca;erro_treino;precisao;revocacao;f1;acuracia;segundos;situacao");
+            for (int i = 0; i < ranking.size(); i++) {
+                Candidate candidate = ranking.get(i);
+                TrainingConfig config = candidate.getConfig();
+                ConfusionMatrix matrix = candidate.getBestMatrix();
+                StringBuilder layers = new StringBuilder();
+                for (int size : config.getHiddenLayers()) {
+                    layers.append(layers.length() > 0 ? "-" : "").append(size);
+                }
+                out.println(String.format(Locale.ROOT, "%d;%s;%s;%d;%d;%d;%.6f;%.4f;%.4f;%.4f;%.4f;%.2f;%s",
+                    i + 1, layers, config.getLearningRate(), config.getBatchSize(), candidate.getEpochs(),
+                    candidate.getBestEpoch(), candidate.getTrainingError(), matrix.precision(), matrix.recall(),
+                    matrix.f1Score(), matrix.getTotal() > 0 ? matrix.accuracy() : 0, candidate.getSeconds(),
+                    candidate.getStatus()));
+            }
+        }
+    }
+
+    /**
+     * Um candidato da busca: a rede em treinamento e o melhor resultado na validação.
+     */
+    public class Candidate {
+        private final TrainingConfig config;
+        private final MultiLayerPerceptron network;
+        private final TrainingConfig.Recipe recipe;
+        private final EncodedDataset validation;
+
+        private int epochs;
+        private double trainingError = Double.NaN;
+        private ConfusionMatrix bestMatrix = new ConfusionMatrix();
+        private int bestEpoch;
+        private CompiledScorer bestWeights;
+        private int evaluationsWithoutImprovement;
+        private long nanos;
+        private boolean finished;
+        private String status = "em andamento";
+
+        Candidate(TrainingConfig config, EncodedDataset dataset) {
+            this.config = config;
+            this.network = config.createNetwork();
+            this.recipe = config.recipe(dataset, seed);
+            this.validation = recipe.getValidation();
+
+            // A busca avalia e para por conta própria, a cada evaluationInterval épocas
+            MiniBatchTrainer trainer = recipe.getTrainer();
+            trainer.setThreads(1);
+            trainer.setEarlyStopping(null, 1, 1, MiniBatchTrainer.Monitor.F1);
+        }
+
+        /**
+         * Treina até targetEpochs épocas, avaliando a cada evaluationInterval.
+         */
+        void advance(int targetEpochs) {
+            long start = System.nanoTime();
+            MiniBatchTrainer trainer = recipe.getTrainer();
+            while (!finished && epochs < targetEpochs) {
+                trainer.setSeed(seed + epochs);
+                trainer.setMaxIterations(Math.min(evaluationInterval, targetEpochs - epochs));
+                recipe.train(network);
+                epochs += trainer.getCurrentIteration();
+                trainingError = trainer.getTotalError();
+
+                CompiledScorer scorer = CompiledScorer.compile(network);
+                ConfusionMatrix matrix = new ConfusionMatrix();
+                ParallelEvaluator.evaluateSequential(scorer, validation, matrix);
+                if (bestWeights == null || matrix.f1Score() > bestMatrix.f1Score()) {
+                    bestMatrix = matrix;
+                    bestEpoch = epochs;
+                    bestWeights = scorer;
+                    evaluationsWithoutImprovement = 0;
+                } else {
+                    evaluationsWithoutImprovement++;
+                }
+
+                if (trainingError < config.getMaxError()) {
+                    finish("convergiu");
+                } else if (evaluationsWithoutImprovement >= patience) {
+                    finish("parado sem melhora");
+                } else if (epochs >= maxEpochs) {
+                    finish("concluído");
+                }
+            }
+            nanos += System.nanoTime() - start;
+        }
+
+        void finish(String status) {
+            this.finished = true;
+            this.status = status;
+        }
+
+        public TrainingConfig getConfig() {
+            return config;
+        }
+
+        public boolean isFinished() {
+            return finished;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public int getEpochs() {
+            return epochs;
+        }
+
+        public int getBestEpoch() {
+            return bestEpoch;
+        }
+
+        public double getTrainingError() {
+            return trainingError;
+        }
+
+        /**
+         * Matriz de confusão da validação na época de melhor F1.
+         */
+        public ConfusionMatrix getBestMatrix() {
+            return bestMatrix;
+        }
+
+        /**
+         * Pesos da época de melhor F1 na validação.
+         */
+        public CompiledScorer getBestWeights() {
+            return bestWeights;
+        }
+
+        public double getSeconds() {
+            return nanos / 1e9;
+        }
+    }
+}
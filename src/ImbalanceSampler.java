@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.neuroph.nnet.MultiLayerPerceptron;
+
+/**
+ * Monta as épocas do {@link MiniBatchTrainer} a partir de índices, sem
+ * copiar registros: os registros codificados ficam no {@link EncodedDataset}
+ * compartilhado e cada época é apenas um vetor int de linhas. Só ~11% dos
+ * registros têm y = "yes"; em vez de percorrer todos os negativos a cada
+ * época, o sampler usa
+ *
+ * - subamostragem estratificada dos negativos: negativeRatio negativos por
+ *   positivo da época (0 = todos);
+ * - sobreamostragem dos positivos: cada positivo entra positiveOversampling
+ *   vezes (a parte fracionária é sorteada);
+ * - mineração de negativos difíceis: uma fração hardNegativeFraction dos
+ *   negativos da época são os de maior erro quadrático na última vez em que
+ *   foram treinados; os demais são sorteados. Negativos ainda não vistos
+ *   contam com o erro máximo (1), de modo que todos acabam sendo visitados.
+ *
+ * O sorteio usa o Random do trainer, portanto a semente do trainer
+ * reproduz as épocas. O erro por linha fica num float[] do tamanho do
+ * conjunto. Como a proporção de positivos no treino muda, o erro total da
+ * época não é comparável ao do conjunto completo e a rede aprende
+ * probabilidades deslocadas para cima; o trainer desfaz esse deslocamento
+ * somando {@link #priorLogOffset()} ao logit da saída (validação e pesos
+ * finais), de modo que o corte de 0.5 continua com o mesmo significado. Os
+ * negativos difíceis deslocam um pouco além disso; para escolher o corte,
+ * use o {@link ThresholdSweep}.
+ * Executar: java -cp "lib\*;bin" ImbalanceSampler [csv] [negativos por positivo] [sobreamostragem] [fração difícil] [threads]
+ */
+public class ImbalanceSampler {
+
+    private double negativeRatio = 3.0;
+    private double positiveOversampling = 1.0;
+    private double hardNegativeFraction = 0.25;
+
+    private int[] positives;
+    private int[] negatives;   // reordenado a cada época (seleção dos difíceis)
+    private float[] errors;    // último erro de cada linha do conjunto
+    private int[] epoch;
+
+    public static void main(String[] args) throws IOException {
+        String csv = args.length > 0 ? args[0] : "bank_assets/bank.csv";
+        ImbalanceSampler sampler = new ImbalanceSampler();
+        sampler.setNegativeRatio(args.length > 1 ? Double.parseDouble(args[1]) : BankMarketingPerceptron.NEGATIVE_RATIO);
+        sampler.setPositiveOversampling(args.length > 2 ? Double.parseDouble(args[2]) : 1.0);
+        sampler.setHardNegativeFraction(args.length > 3 ? Double.parseDouble(args[3])
+            : BankMarketingPerceptron.HARD_NEGATIVE_FRACTION);
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        EncodedDataset dataset = BankDataCache.open(csv);
+        int[][] folds = CrossValidation.stratifiedFolds(dataset, BankMarketingPerceptron.VALIDATION_FOLDS, 42);
+        int[] trainingRows = CrossValidation.trainingRows(folds, 0);
+        EncodedDataset validation = EncodedDataset.subset(dataset, folds[0]);
+        MultiLayerPerceptron initial = TrainingConfig.DEFAULT.createNetwork();
+
+        System.out.println("=== AMOSTRAGEM DE CLASSES (" + trainingRows.length + " registros de treino, "
+            + folds[0].length + " de validação) ===");
+        System.out.println(String.format("%-34s %7s %8s %9s %9s %9s %9s", "Amostragem", "Linhas", "Épocas",
+            "Melhor", "Tempo (s)", "F1 valid.", "Melhor F1"));
+        compare("todos os registros", null, dataset, trainingRows, validation, initial, threads);
+        compare(sampler.toString(), sampler, dataset, trainingRows, validation, initial, threads);
+    }
+
+    /**
+     * Treina a partir dos mesmos pesos iniciais, com parada antecipada no F1
+     * de validação, e imprime o tempo até parar e o F1 dos melhores pesos.
+     */
+    private static void compare(String name, ImbalanceSampler sampler, EncodedDataset dataset, int[] rows,
+                                EncodedDataset validation, MultiLayerPerceptron initial, int threads) {
+        MultiLayerPerceptron network = TrainingConfig.DEFAULT.createNetwork();
+        CompiledScorer.compile(initial).applyTo(network);
+        MiniBatchTrainer trainer = TrainingConfig.DEFAULT.createTrainer();
+        trainer.setThreads(threads);
+        trainer.setSampler(sampler);
+        trainer.setEarlyStopping(validation, BankMarketingPerceptron.VALIDATION_INTERVAL,
+            BankMarketingPerceptron.VALIDATION_PATIENCE, MiniBatchTrainer.Monitor.F1);
+
+        long start = System.nanoTime();
+        trainer.train(network, dataset, rows);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // F1 no corte padrão e no melhor corte (as probabilidades mudam com a amostragem)
+        ThresholdSweep sweep = new ThresholdSweep();
+        ConfusionMatrix matrix = new ConfusionMatrix();
+        ParallelEvaluator.evaluateSequential(CompiledScorer.compile(network), validation, matrix, sweep);
+        System.out.println(String.format("%-34s %7d %8d %9d %9.2f %9.4f %9.4f", name,
+            sampler != null ? sampler.epochSize(dataset, rows) : rows.length, trainer.getCurrentIteration(),
+            trainer.getBestEpoch(), seconds, matrix.f1Score(), sweep.f1(sweep.best(ThresholdSweep.f1()))));
+    }
+
+    /**
+     * Negativos por positivo em cada época; 0 ou negativo mantém todos os negativos.
+     */
+    public void setNegativeRatio(double negativeRatio) {
+        this.negativeRatio = negativeRatio;
+    }
+
+    /**
+     * Quantas vezes cada positivo entra por época (>= 1).
+     */
+    public void setPositiveOversampling(double positiveOversampling) {
+        this.positiveOversampling = Math.max(1.0, positiveOversampling);
+    }
+
+    /**
+     * Fração dos negativos da época escolhida pelo maior erro (0 = todos sorteados).
+     */
+    public void setHardNegativeFraction(double hardNegativeFraction) {
+        this.hardNegativeFraction = Math.max(0.0, Math.min(1.0, hardNegativeFraction));
+    }
+
+    /**
+     * Separa as linhas de treino por classe; chamado pelo trainer no início do treinamento.
+     */
+    void start(EncodedDataset dataset, int[] rows) {
+        int positiveCount = countPositives(dataset, rows);
+        positives = new int[positiveCount];
+        negatives = new int[rows.length - positiveCount];
+        int p = 0;
+        int n = 0;
+        for (int row : rows) {
+            if (dataset.label(row) > ConfusionMatrix.DEFAULT_THRESHOLD) {
+                positives[p++] = row;
+            } else {
+                negatives[n++] = row;
+            }
+        }
+        errors = new float[dataset.size()];
+        Arrays.fill(errors, 1.0f);
+        epoch = new int[epochPositives(positives.length) + epochNegatives(positives.length, negatives.length)];
+    }
+
+    /**
+     * log(chance de positivo nas linhas de treino) - log(chance nas épocas):
+     * somado ao logit da saída, devolve as probabilidades ao prior real
+     * (0 se uma das classes não aparece). Válido após {@link #start}.
+     */
+    double priorLogOffset() {
+        int epochPositives = epochPositives(positives.length);
+        int epochNegatives = epoch.length - epochPositives;
+        if (positives.length == 0 || negatives.length == 0 || epochNegatives == 0) {
+            return 0;
+        }
+        return Math.log((double) positives.length / negatives.length) - Math.log((double) epochPositives / epochNegatives);
+    }
+
+    private static int countPositives(EncodedDataset dataset, int[] rows) {
+        int count = 0;
+        for (int row : rows) {
+            if (dataset.label(row) > ConfusionMatrix.DEFAULT_THRESHOLD) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int epochPositives(int positiveCount) {
+        return (int) Math.round(positiveCount * positiveOversampling);
+    }
+
+    private int epochNegatives(int positiveCount, int negativeCount) {
+        return negativeRatio > 0 ? (int) Math.min(negativeCount, Math.round(epochPositives(positiveCount) * negativeRatio))
+                                 : negativeCount;
+    }
+
+    /**
+     * Linhas por época ao treinar com as linhas rows do conjunto.
+     */
+    public int epochSize(EncodedDataset dataset, int[] rows) {
+        int positiveCount = countPositives(dataset, rows);
+        return epochPositives(positiveCount) + epochNegatives(positiveCount, rows.length - positiveCount);
+    }
+
+    /**
+     * Linhas da próxima época, embaralhadas. O vetor é reutilizado entre épocas.
+     */
+    int[] nextEpoch(Random random) {
+        int size = 0;
+
+        // Positivos: cópias inteiras e o restante sorteado
+        int copies = (int) positiveOversampling;
+        for (int c = 0; c < copies; c++) {
+            System.arraycopy(positives, 0, epoch, size, positives.length);
+            size += positives.length;
+        }
+        int extra = epochPositives(positives.length) - size;
+        partialShuffle(positives, 0, extra, random);
+        System.arraycopy(positives, 0, epoch, size, extra);
+        size += extra;
+
+        // Negativos: os de maior erro e, do restante, um sorteio sem reposição
+        int negativeCount = epoch.length - size;
+        int hard = (int) Math.round(negativeCount * hardNegativeFraction);
+        if (negativeCount < negatives.length) {
+            partialShuffle(negatives, 0, negatives.length, random); // empates resolvidos ao acaso
+            selectLargest(negatives, hard, random);
+            partialShuffle(negatives, hard, negativeCount, random);
+        }
+        System.arraycopy(negatives, 0, epoch, size, negativeCount);
+
+        partialShuffle(epoch, 0, epoch.length, random);
+        return epoch;
+    }
+
+    /**
+     * Registra o erro quadrático da linha no treino; chamado pelos workers
+     * do trainer sem sincronização. Com sobreamostragem, um positivo repetido
+     * pode cair duas vezes no mesmo lote e ser gravado por dois workers ao
+     * mesmo tempo; essa corrida é tolerada, pois os dois calculam o erro com
+     * os mesmos pesos (o valor gravado é o mesmo) e a escrita de um float é
+     * atômica.
+     */
+    void recordError(int row, double error) {
+        errors[row] = (float) error;
+    }
+
+    /**
+     * Embaralha values[from, length) e mantém em values[from, to) uma amostra
+     * aleatória sem reposição (Fisher-Yates parcial).
+     */
+    private static void partialShuffle(int[] values, int from, int to, Random random) {
+        for (int i = from; i < to && i < values.length - 1; i++) {
+            int j = i + random.nextInt(values.length - i);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Reordena rows de modo que as k linhas de maior erro fiquem em rows[0, k)
+     * (quickselect com pivô aleatório, O(n) em média).
+     */
+    private void selectLargest(int[] rows, int k, Random random) {
+        int low = 0;
+        int high = rows.length - 1;
+        while (k > 0 && k < rows.length && low < high) {
+            float pivot = errors[rows[low + random.nextInt(high - low + 1)]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (errors[rows[i]] > pivot) {
+                    i++;
+                }
+                while (errors[rows[j]] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = rows[i];
+                    rows[i] = rows[j];
+                    rows[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k - 1 <= j) {
+                high = j;
+            } else if (k - 1 >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s neg./pos., positivos x%.1f, %.0f%% difíceis",
+            negativeRatio > 0 ? String.format("%.1f", negativeRatio) : "todos", positiveOversampling,
+            hardNegativeFraction * 100);
+    }
+}
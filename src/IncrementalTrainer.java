@@ -0,0 +1,174 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+import org.neuroph.core.NeuralNetwork;
+import org.neuroph.nnet.MultiLayerPerceptron;
+
+/**
+ * Treinamento incremental: continua o treino do modelo salvo apenas com as
+ * linhas acrescentadas ao CSV desde o último checkpoint, misturadas a uma
+ * amostra limitada dos registros antigos ({@link ReplayReservoir}).
+ *
+ * Arquivos, a partir do nome base do modelo (ex.: bankPredictionNetwork):
+ * - .nnet e .model: modelo salvo ao final de cada execução;
+ * - .checkpoint: posição já consumida do CSV ({@link TrainingCheckpoint});
+ * - .replay: amostra de replay;
+ * - .replay.pending: amostra de replay já atualizada com as linhas da
+ *   rodada, gravada antes de avançar o checkpoint e promovida a .replay
+ *   depois dele (na mesma execução ou, após uma queda, na seguinte);
+ * - .partial.model: pesos do treinamento em andamento, gravados a cada
+ *   CHECKPOINT_INTERVAL épocas; se o processo for interrompido, a próxima
+ *   execução retoma dessa época com as mesmas linhas.
+ *
+ * A rede nova e o treinamento seguem {@link TrainingConfig#DEFAULT} e a
+ * sua receita ({@link TrainingConfig#recipe}), como no modelo completo.
+ * Sem checkpoint, todas as linhas do CSV são consideradas novas.
+ * Executar: java -cp "lib\*;bin" IncrementalTrainer [csv] [modelo base] [épocas] [tamanho do replay]
+ */
+public class IncrementalTrainer {
+
+    static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    static final String REPLAY_SUFFIX = ".replay";
+    static final String PENDING_REPLAY_SUFFIX = REPLAY_SUFFIX + ".pending";
+    static final String PARTIAL_SUFFIX = ".partial" + ModelSnapshot.SUFFIX;
+
+    private static final int CHECKPOINT_INTERVAL = 25; // épocas entre checkpoints parciais
+
+    public static void main(String[] args) throws IOException {
+        String csv = args.length > 0 ? args[0] : "bank_assets/bank.csv";
+        String base = args.length > 1 ? args[1] : "bankPredictionNetwork";
+        int epochs = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int replaySize = args.length > 3 ? Integer.parseInt(args[3]) : 2000;
+
+        System.out.println("=== TREINAMENTO INCREMENTAL ===");
+        train(csv, base, epochs, replaySize);
+    }
+
+    /**
+     * Executa uma rodada incremental e retorna o número de registros novos incorporados.
+     */
+    public static long train(String csv, String base, int epochs, int replaySize) throws IOException {
+        final String checkpointFile = base + CHECKPOINT_SUFFIX;
+        final String partialFile = base + PARTIAL_SUFFIX;
+        final TrainingCheckpoint checkpoint = TrainingCheckpoint.load(checkpointFile);
+        final Path replayFile = Paths.get(base + REPLAY_SUFFIX);
+        final Path pendingReplayFile = Paths.get(base + PENDING_REPLAY_SUFFIX);
+
+        // Amostra pendente de uma rodada anterior: promover se o checkpoint foi
+        // confirmado; descartar se não foi (a rodada será repetida e a refaz)
+        if (Files.exists(pendingReplayFile)) {
+            if (checkpoint.hasPending()) {
+                Files.delete(pendingReplayFile);
+            } else {
+                Files.move(pendingReplayFile, replayFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        if (!checkpoint.getSource().isEmpty() && !checkpoint.getSource().equals(csv)) {
+            throw new IllegalStateException("Checkpoint " + checkpointFile + " pertence a " + checkpoint.getSource());
+        }
+        if (new File(csv).length() < checkpoint.getOffset()) {
+            throw new IllegalStateException(csv + " é menor que a posição do checkpoint ("
+                + checkpoint.getOffset() + " bytes); o arquivo foi substituído?");
+        }
+        checkpoint.setSource(csv);
+
+        // Retomar um treinamento interrompido ou começar um novo a partir do modelo salvo
+        long end = Long.MAX_VALUE;
+        int startEpoch = 0;
+        MultiLayerPerceptron network;
+        if (checkpoint.hasPending()) {
+            end = checkpoint.getPendingOffset();
+            if (Files.exists(Paths.get(partialFile))) {
+                network = ModelSnapshot.load(partialFile).toNetwork();
+                startEpoch = checkpoint.getPendingEpoch();
+            } else {
+                network = loadOrCreate(base);
+            }
+            System.out.println("Retomando treinamento interrompido na época " + startEpoch);
+        } else {
+            network = loadOrCreate(base);
+        }
+
+        final ArrayDataset fresh = new ArrayDataset();
+        BankCsvReader reader = new BankCsvReader();
+        reader.readRange(csv, checkpoint.getOffset(), end, fresh::add);
+        final long newOffset = reader.getEndOffset();
+        System.out.println("Registros novos: " + fresh.size() + " (bytes " + checkpoint.getOffset() + " a "
+            + newOffset + "; " + checkpoint.getRecords() + " já incorporados)");
+        if (fresh.size() == 0) {
+            System.out.println("Nenhum registro novo desde o último checkpoint");
+            return 0;
+        }
+
+        ReplayReservoir reservoir = ReplayReservoir.load(replayFile.toString(), replaySize);
+        ArrayDataset training = new ArrayDataset(fresh.size() + reservoir.size());
+        training.addAll(fresh);
+        training.addAll(reservoir.getRows());
+        System.out.println("Amostra de replay: " + reservoir.size() + " de " + reservoir.getSeen() + " registros antigos");
+
+        checkpoint.setPending(newOffset, fresh.size(), startEpoch);
+        checkpoint.save(checkpointFile);
+
+        // Mesma semente a cada tentativa: uma retomada usa a mesma parte de validação
+        TrainingConfig.Recipe recipe = TrainingConfig.DEFAULT.withMaxIterations(Math.max(1, epochs - startEpoch))
+            .recipe(training, 42);
+        final MiniBatchTrainer trainer = recipe.getTrainer();
+        final int firstEpoch = startEpoch;
+        trainer.setEpochListener((epoch, totalError, epochNanos) -> {
+            if (epoch % CHECKPOINT_INTERVAL == 0) {
+                try {
+                    ModelSnapshot.write(trainer.currentWeights(), partialFile);
+                    checkpoint.setPending(newOffset, fresh.size(), firstEpoch + epoch);
+                    checkpoint.save(checkpointFile);
+                } catch (IOException e) {
+                    System.out.println("Falha ao gravar checkpoint na época " + (firstEpoch + epoch) + ": " + e.getMessage());
+                }
+            }
+        });
+        recipe.train(network);
+        System.out.println("Treinamento concluído em " + (startEpoch + trainer.getCurrentIteration()) + " épocas ("
+            + String.format("%.2f", trainer.getAverageEpochMillis()) + " ms/época, erro "
+            + String.format("%.5f", trainer.getTotalError())
+            + (recipe.getValidationRows().length > 0 ? ", melhor época " + (startEpoch + trainer.getBestEpoch()) : "")
+            + ")");
+
+        // Salvar o modelo e a amostra atualizada (como pendente) antes de avançar o
+        // checkpoint: uma queda antes do commit apenas repete a rodada, e uma queda
+        // depois dele deixa a amostra pendente para a próxima execução promover
+        network.save(base + ".nnet");
+        ModelSnapshot.write(CompiledScorer.compile(network), base + ModelSnapshot.SUFFIX);
+        reservoir.offerAll(fresh, new Random(reservoir.getSeen()));
+        reservoir.save(pendingReplayFile.toString());
+        checkpoint.commitPending();
+        checkpoint.save(checkpointFile);
+        Files.move(pendingReplayFile, replayFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(Paths.get(partialFile));
+
+        System.out.println("Modelo salvo em " + base + ".nnet; checkpoint em " + checkpointFile
+            + " (" + checkpoint.getRecords() + " registros, byte " + checkpoint.getOffset() + ")");
+        return fresh.size();
+    }
+
+    /**
+     * Modelo salvo (snapshot, se existir, ou .nnet) ou uma rede nova.
+     */
+    private static MultiLayerPerceptron loadOrCreate(String base) throws IOException {
+        if (Files.exists(Paths.get(base + ModelSnapshot.SUFFIX))) {
+            System.out.println("Partindo do modelo salvo " + base + ModelSnapshot.SUFFIX);
+            return ModelSnapshot.load(base + ModelSnapshot.SUFFIX).toNetwork();
+        }
+        if (Files.exists(Paths.get(base + ".nnet"))) {
+            System.out.println("Partindo do modelo salvo " + base + ".nnet");
+            return (MultiLayerPerceptron) NeuralNetwork.createFromFile(base + ".nnet");
+        }
+        System.out.println("Nenhum modelo salvo; criando uma rede nova (" + TrainingConfig.DEFAULT + ")");
+        return TrainingConfig.DEFAULT.createNetwork();
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrupa pedidos de inferência concorrentes numa única passada do
+ * {@link CompiledScorer}. Uma thread dedicada espera o primeiro pedido da
+ * fila, junta todos os que chegaram enquanto o lote anterior era calculado
+ * (até maxBatchRows registros) e completa as respostas de cada um.
+ *
+ * Não há espera artificial para encher o lote: com pouca carga cada pedido
+ * é calculado sozinho, e com muita carga os lotes crescem naturalmente.
+ *
+ * {@link #setScorer} troca o modelo sem descartar pedidos: o lote seguinte
+ * já usa o scorer novo.
+ */
+public class MicroBatchScorer implements AutoCloseable {
+
+    private volatile CompiledScorer scorer;
+    private final int maxBatchRows;
+    private final BlockingQueue<Request> queue;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    public MicroBatchScorer(CompiledScorer scorer, int maxBatchRows, int queueCapacity) {
+        this.scorer = scorer;
+        this.maxBatchRows = maxBatchRows;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::run, "micro-batch-scorer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public CompiledScorer getScorer() {
+        return scorer;
+    }
+
+    /**
+     * Passa a calcular os próximos lotes com scorer.
+     */
+    public void setScorer(CompiledScorer scorer) {
+        this.scorer = scorer;
+    }
+
+    /**
+     * Enfileira rows registros (entradas em ordem de registro) e retorna as
+     * probabilidades quando o lote que os contém for calculado.
+     */
+    public CompletableFuture<double[]> submit(double[] inputs, int rows) {
+        Request request = new Request(inputs, rows);
+        if (!running) {
+            request.result.completeExceptionally(new IllegalStateException("Scorer encerrado"));
+        } else if (!queue.offer(request)) {
+            request.result.completeExceptionally(new IllegalStateException("Fila de inferência cheia"));
+        } else if (!running) {
+            // close() pode ter esvaziado a fila entre a verificação acima e o offer
+            failPending();
+        }
+        return request.result;
+    }
+
+    /**
+     * Versão bloqueante de {@link #submit}.
+     */
+    public double[] score(double[] inputs, int rows) throws InterruptedException {
+        try {
+            return submit(inputs, rows).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getRowCount() {
+        return rows.sum();
+    }
+
+    public double getAverageBatchRows() {
+        long n = batches.sum();
+        return n > 0 ? (double) rows.sum() / n : 0;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failPending();
+    }
+
+    /**
+     * Completa com erro os pedidos que ficaram na fila depois do encerramento.
+     */
+    private void failPending() {
+        List<Request> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        for (Request request : pending) {
+            request.result.completeExceptionally(new IllegalStateException("Scorer encerrado"));
+        }
+    }
+
+    private void run() {
+        CompiledScorer current = scorer;
+        int inputCount = current.getInputCount();
+        int outputCount = current.getOutputCount();
+        CompiledScorer.Workspace workspace = current.newWorkspace();
+        double[] inputs = new double[maxBatchRows * inputCount];
+        double[] outputs = new double[maxBatchRows * outputCount];
+        List<Request> batch = new ArrayList<>();
+        Request carried = null; // pedido que não coube no lote anterior
+
+        while (running) {
+            batch.clear();
+            int batchRows = 0;
+            try {
+                Request request = carried != null ? carried : queue.take();
+                carried = null;
+                while (request != null) {
+                    if (batchRows > 0 && batchRows + request.rows > maxBatchRows) {
+                        carried = request;
+                        break;
+                    }
+                    batch.add(request);
+                    batchRows += request.rows;
+                    request = queue.poll();
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            // Modelo trocado por setScorer: novos buffers para a topologia nova
+            if (scorer != current) {
+                current = scorer;
+                inputCount = current.getInputCount();
+                outputCount = current.getOutputCount();
+                workspace = current.newWorkspace();
+                inputs = new double[maxBatchRows * inputCount];
+                outputs = new double[maxBatchRows * outputCount];
+            }
+
+            // Pedidos maiores que maxBatchRows ficam sozinhos num lote maior
+            if (batchRows > maxBatchRows) {
+                inputs = new double[batchRows * inputCount];
+                outputs = new double[batchRows * outputCount];
+            }
+
+            try {
+                int offset = 0;
+                for (Request request : batch) {
+                    System.arraycopy(request.inputs, 0, inputs, offset * inputCount, request.rows * inputCount);
+                    offset += request.rows;
+                }
+                current.score(inputs, batchRows, outputs, workspace);
+
+                offset = 0;
+                for (Request request : batch) {
+                    double[] result = new double[request.rows * outputCount];
+                    System.arraycopy(outputs, offset * outputCount, result, 0, result.length);
+                    offset += request.rows;
+                    request.result.complete(result);
+                }
+                batches.increment();
+                rows.add(batchRows);
+            } catch (RuntimeException e) {
+                for (Request request : batch) {
+                    request.result.completeExceptionally(e);
+                }
+            }
+
+            if (inputs.length > maxBatchRows * inputCount) {
+                inputs = new double[maxBatchRows * inputCount];
+                outputs = new double[maxBatchRows * outputCount];
+            }
+        }
+
+        if (carried != null) {
+            carried.result.completeExceptionally(new IllegalStateException("Scorer encerrado"));
+        }
+    }
+
+    private static class Request {
+        final double[] inputs;
+        final int rows;
+        final CompletableFuture<double[]> result = new CompletableFuture<>();
+
+        Request(double[] inputs, int rows) {
+            this.inputs = inputs;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,548 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.neuroph.nnet.MultiLayerPerceptron;
+
+/**
+ * Treinamento por mini-lotes, com os gradientes calculados em paralelo.
+ * Cada lote é dividido entre as threads, com pelo menos
+ * MIN_ROWS_PER_WORKER linhas por thread (lotes menores são calculados na
+ * própria thread do treinamento, sem o custo do fork/join); cada thread
+ * acumula o gradiente das suas linhas num buffer próprio, os buffers das
+ * threads usadas no lote são somados e os pesos recebem uma única
+ * atualização por lote. A taxa de aprendizado tem o mesmo
+ * significado do Neuroph (passo por padrão): a atualização do lote é a soma
+ * das variações que cada padrão produziria.
+ *
+ * Os critérios de parada seguem o BackPropagation do Neuroph: erro total
+ * da época (soma dos erros quadráticos / 2n) abaixo de maxError ou
+ * maxIterations épocas. Ao final os pesos são gravados de volta na
+ * MultiLayerPerceptron recebida, que continua podendo ser salva com save().
+ *
+ * Com {@link #setEarlyStopping}, a cada validationInterval épocas a rede é
+ * avaliada num conjunto de validação (perda = MSE / 2, na mesma escala do
+ * erro de treino, ou F1). Os pesos da melhor avaliação ficam copiados num
+ * vetor; após patience avaliações sem melhora o treinamento para, e ao
+ * final a rede recebe os melhores pesos em vez dos da última época.
+ *
+ * Com {@link #setSampler}, cada época usa as linhas escolhidas por um
+ * {@link ImbalanceSampler} (negativos subamostrados, positivos
+ * sobreamostrados, negativos difíceis) em vez de todas as linhas. A
+ * proporção de positivos das épocas difere da real, então o bias da saída
+ * é corrigido pelo {@link ImbalanceSampler#priorLogOffset()}: os pesos
+ * recebidos, os da validação, os de {@link #currentWeights()} e os finais
+ * estão sempre no prior real, e só o treinamento usa o prior das épocas.
+ */
+public class MiniBatchTrainer {
+
+    /**
+     * Notificado ao final de cada época.
+     */
+    public interface EpochListener {
+        void epochFinished(int epoch, double totalError, long epochNanos);
+    }
+
+    /**
+     * Métrica de validação usada na parada antecipada.
+     */
+    public enum Monitor { LOSS, F1 }
+
+    /** Linhas mínimas por thread num lote; abaixo disso a divisão custa mais que o cálculo. */
+    static final int MIN_ROWS_PER_WORKER = 16;
+
+    private int batchSize = 32;
+    private double learningRate = 0.1;
+    private double maxError = 0.02;
+    private int maxIterations = 5000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = 42;
+    private EpochListener listener;
+    private ImbalanceSampler sampler;
+
+    // Parada antecipada (validation == null: desligada)
+    private EncodedDataset validation;
+    private int validationInterval;
+    private int patience;
+    private Monitor monitor = Monitor.LOSS;
+
+    private int currentIteration;
+    private double totalError;
+    private long totalEpochNanos;
+    private int bestEpoch;
+    private double bestValidationLoss;
+    private double bestValidationF1;
+    private boolean stoppedEarly;
+
+    // Pesos do treinamento em andamento (para currentWeights)
+    private int[] layerSizes;
+    private double[][] weights;
+    private double slope;
+    private double priorOffset; // logit somado à saída para voltar ao prior real (0 sem sampler)
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setLearningRate(double learningRate) {
+        this.learningRate = learningRate;
+    }
+
+    public void setMaxError(double maxError) {
+        this.maxError = maxError;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Semente do embaralhamento das linhas a cada época.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setEpochListener(EpochListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Monta cada época com o sampler (null: todas as linhas, embaralhadas).
+     */
+    public void setSampler(ImbalanceSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    /**
+     * Avalia o conjunto de validação a cada interval épocas e para após
+     * patience avaliações seguidas sem melhora da métrica monitorada.
+     */
+    public void setEarlyStopping(EncodedDataset validation, int interval, int patience, Monitor monitor) {
+        this.validation = validation;
+        this.validationInterval = Math.max(1, interval);
+        this.patience = Math.max(1, patience);
+        this.monitor = monitor;
+    }
+
+    public int getCurrentIteration() {
+        return currentIteration;
+    }
+
+    /**
+     * Erro total (MSE / 2, como no Neuroph) da última época.
+     */
+    public double getTotalError() {
+        return totalError;
+    }
+
+    /**
+     * Tempo médio de parede por época, em milissegundos.
+     */
+    public double getAverageEpochMillis() {
+        return currentIteration > 0 ? totalEpochNanos / 1e6 / currentIteration : 0;
+    }
+
+    /**
+     * Época dos pesos mantidos pela parada antecipada.
+     */
+    public int getBestEpoch() {
+        return bestEpoch;
+    }
+
+    /**
+     * Perda de validação (MSE / 2) dos pesos mantidos.
+     */
+    public double getBestValidationLoss() {
+        return bestValidationLoss;
+    }
+
+    public double getBestValidationF1() {
+        return bestValidationF1;
+    }
+
+    /**
+     * true se o treinamento parou por falta de melhora na validação.
+     */
+    public boolean isStoppedEarly() {
+        return stoppedEarly;
+    }
+
+    /**
+     * Cópia dos pesos do treinamento em andamento. Chamada de dentro do
+     * {@link EpochListener}, corresponde aos pesos ao final daquela época.
+     */
+    public CompiledScorer currentWeights() {
+        if (weights == null) {
+            throw new IllegalStateException("Nenhum treinamento em andamento");
+        }
+        return realPrior(layerSizes.clone(), copy(weights), slope);
+    }
+
+    /**
+     * Treina a rede com todas as linhas do conjunto.
+     */
+    public MultiLayerPerceptron train(MultiLayerPerceptron network, EncodedDataset dataset) {
+        int[] rows = new int[dataset.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return train(network, dataset, rows);
+    }
+
+    /**
+     * Treina a rede apenas com as linhas indicadas, partindo dos pesos atuais.
+     */
+    public MultiLayerPerceptron train(MultiLayerPerceptron network, EncodedDataset dataset, int[] rows) {
+        CompiledScorer initial = CompiledScorer.compile(network);
+        if (initial.getActivation() != CompiledScorer.Activation.SIGMOID) {
+            throw new IllegalArgumentException("MiniBatchTrainer suporta apenas redes sigmoides");
+        }
+
+        int[] layerSizes = initial.getLayerSizes();
+        double[][] weights = initial.copyWeights();
+        double slope = initial.getSlope();
+        this.layerSizes = layerSizes;
+        this.weights = weights;
+        this.slope = slope;
+
+        int workerCount = activeWorkers(threads, batchSize);
+        List<Worker> workers = new ArrayList<>();
+        for (int t = 0; t < workerCount; t++) {
+            workers.add(new Worker(layerSizes, weights, slope, dataset, sampler));
+        }
+
+        int[] order = rows.clone();
+        Random random = new Random(seed);
+        priorOffset = 0;
+        if (sampler != null) {
+            sampler.start(dataset, rows);
+            priorOffset = sampler.priorLogOffset();
+            shiftOutputBias(layerSizes, weights, slope, -priorOffset); // treinar no prior das épocas
+        }
+        ForkJoinPool pool = workerCount > 1 ? new ForkJoinPool(workerCount) : null;
+        double[] bestWeights = null; // cópia plana dos pesos de todas as camadas
+        int checksWithoutImprovement = 0;
+        bestEpoch = 0;
+        bestValidationLoss = Double.NaN;
+        bestValidationF1 = Double.NaN;
+        stoppedEarly = false;
+        try {
+            currentIteration = 0;
+            totalEpochNanos = 0;
+            do {
+                long start = System.nanoTime();
+                if (sampler != null) {
+                    order = sampler.nextEpoch(random);
+                } else {
+                    shuffle(order, random);
+                }
+
+                double errorSum = 0;
+                for (int first = 0; first < order.length; first += batchSize) {
+                    int count = Math.min(batchSize, order.length - first);
+                    int active = activeWorkers(workers.size(), count);
+                    errorSum += runBatch(pool, workers, active, order, first, count);
+                    applyGradients(workers, active, weights);
+                }
+
+                totalError = errorSum / (2.0 * order.length);
+                currentIteration++;
+
+                long elapsed = System.nanoTime() - start;
+                totalEpochNanos += elapsed;
+                if (listener != null) {
+                    listener.epochFinished(currentIteration, totalError, elapsed);
+                }
+
+                boolean last = totalError < maxError || currentIteration >= maxIterations;
+                if (validation != null && (currentIteration % validationInterval == 0 || last)) {
+                    if (validate(layerSizes, weights, slope)) {
+                        bestWeights = flatten(weights, bestWeights);
+                        bestEpoch = currentIteration;
+                        checksWithoutImprovement = 0;
+                    } else if (++checksWithoutImprovement >= patience) {
+                        stoppedEarly = true;
+                        break;
+                    }
+                }
+            } while (totalError >= maxError && currentIteration < maxIterations);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            this.weights = null;
+        }
+
+        if (bestWeights != null) {
+            unflatten(bestWeights, weights);
+        }
+
+        realPrior(layerSizes, weights, slope).applyTo(network);
+        return network;
+    }
+
+    /**
+     * Threads para um lote de count linhas: no máximo available, com pelo menos
+     * MIN_ROWS_PER_WORKER linhas cada.
+     */
+    static int activeWorkers(int available, int count) {
+        int byRows = (count + MIN_ROWS_PER_WORKER - 1) / MIN_ROWS_PER_WORKER;
+        return Math.max(1, Math.min(available, byRows));
+    }
+
+    /**
+     * Distribui as linhas do lote entre os active primeiros workers e retorna
+     * a soma dos erros quadráticos; com um único worker, calcula na thread atual.
+     */
+    private static double runBatch(ForkJoinPool pool, List<Worker> workers, int active, final int[] order,
+                                   int first, int count) {
+        if (active == 1) {
+            return workers.get(0).accumulate(order, first, first + count);
+        }
+        List<Callable<Double>> tasks = new ArrayList<>(active);
+        for (int t = 0; t < active; t++) {
+            final Worker worker = workers.get(t);
+            final int from = first + (int) ((long) count * t / active);
+            final int to = first + (int) ((long) count * (t + 1) / active);
+            tasks.add(() -> worker.accumulate(order, from, to));
+        }
+
+        double errorSum = 0;
+        try {
+            for (Future<Double> result : pool.invokeAll(tasks)) {
+                errorSum += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Treinamento interrompido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha no cálculo do gradiente", e.getCause());
+        }
+        return errorSum;
+    }
+
+    /**
+     * Soma os gradientes dos workers usados no lote, atualiza os pesos e zera
+     * os seus buffers (os demais continuam zerados).
+     */
+    private void applyGradients(List<Worker> workers, int active, double[][] weights) {
+        for (int l = 0; l < weights.length; l++) {
+            double[] w = weights[l];
+            for (int t = 0; t < active; t++) {
+                double[] gradient = workers.get(t).gradients[l];
+                for (int i = 0; i < w.length; i++) {
+                    w[i] -= learningRate * gradient[i];
+                    gradient[i] = 0.0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Avalia os pesos atuais na validação; retorna true se melhoraram a métrica monitorada.
+     */
+    private boolean validate(int[] layerSizes, double[][] weights, double slope) {
+        ConfusionMatrix matrix = new ConfusionMatrix();
+        CalibrationCurve calibration = new CalibrationCurve(1);
+        CompiledScorer scorer = realPrior(layerSizes, copy(weights), slope);
+        ParallelEvaluator.evaluateSequential(scorer, validation, matrix, calibration);
+        double loss = calibration.brierScore() / 2;
+        double f1 = matrix.f1Score();
+
+        boolean improved = Double.isNaN(bestValidationLoss)
+            || (monitor == Monitor.LOSS ? loss < bestValidationLoss : f1 > bestValidationF1);
+        if (improved) {
+            bestValidationLoss = loss;
+            bestValidationF1 = f1;
+        }
+        return improved;
+    }
+
+    /**
+     * Scorer com os pesos (alterados no lugar) levados do prior das épocas ao prior real.
+     */
+    private CompiledScorer realPrior(int[] layerSizes, double[][] weights, double slope) {
+        shiftOutputBias(layerSizes, weights, slope, priorOffset);
+        return new CompiledScorer(layerSizes, weights, CompiledScorer.Activation.SIGMOID, slope, 1.0);
+    }
+
+    /**
+     * Soma logitOffset ao logit de cada saída: sigmoid(slope * (net + bias)).
+     */
+    private static void shiftOutputBias(int[] layerSizes, double[][] weights, double slope, double logitOffset) {
+        if (logitOffset == 0) {
+            return;
+        }
+        int last = layerSizes.length - 1;
+        int inputs = layerSizes[last - 1];
+        double[] w = weights[last - 1];
+        for (int j = 0; j < layerSizes[last]; j++) {
+            w[j * (inputs + 1) + inputs] += logitOffset / slope;
+        }
+    }
+
+    private static double[] flatten(double[][] weights, double[] target) {
+        if (target == null) {
+            int length = 0;
+            for (double[] layer : weights) {
+                length += layer.length;
+            }
+            target = new double[length];
+        }
+        int position = 0;
+        for (double[] layer : weights) {
+            System.arraycopy(layer, 0, target, position, layer.length);
+            position += layer.length;
+        }
+        return target;
+    }
+
+    private static void unflatten(double[] source, double[][] weights) {
+        int position = 0;
+        for (double[] layer : weights) {
+            System.arraycopy(source, position, layer, 0, layer.length);
+            position += layer.length;
+        }
+    }
+
+    private static double[][] copy(double[][] weights) {
+        double[][] copy = new double[weights.length][];
+        for (int l = 0; l < weights.length; l++) {
+            copy[l] = weights[l].clone();
+        }
+        return copy;
+    }
+
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    /**
+     * Buffers de uma thread: ativações, deltas e gradiente acumulado.
+     * Os pesos são compartilhados e só lidos durante o lote.
+     */
+    private static class Worker {
+        final int[] layerSizes;
+        final double[][] weights;
+        final double slope;
+        final EncodedDataset dataset;
+        final ImbalanceSampler sampler; // recebe o erro de cada linha, se houver
+
+        final double[][] activations;
+        final double[][] deltas;
+        final double[][] gradients;
+
+        Worker(int[] layerSizes, double[][] weights, double slope, EncodedDataset dataset, ImbalanceSampler sampler) {
+            this.layerSizes = layerSizes;
+            this.weights = weights;
+            this.slope = slope;
+            this.dataset = dataset;
+            this.sampler = sampler;
+
+            activations = new double[layerSizes.length][];
+            deltas = new double[layerSizes.length][];
+            for (int l = 0; l < layerSizes.length; l++) {
+                activations[l] = new double[layerSizes[l]];
+                deltas[l] = new double[layerSizes[l]];
+            }
+            gradients = new double[weights.length][];
+            for (int l = 0; l < weights.length; l++) {
+                gradients[l] = new double[weights[l].length];
+            }
+        }
+
+        double accumulate(int[] order, int from, int to) {
+            double errorSum = 0;
+            int last = layerSizes.length - 1;
+            for (int k = from; k < to; k++) {
+                int row = order[k];
+                dataset.readInputs(row, activations[0]);
+                forward();
+
+                // Camada de saída: erro = saída - desejado (como no MeanSquaredError do Neuroph)
+                double[] output = activations[last];
+                double rowError = 0;
+                for (int j = 0; j < output.length; j++) {
+                    double error = output[j] - dataset.label(row);
+                    rowError += error * error;
+                    deltas[last][j] = error * slope * output[j] * (1.0 - output[j]);
+                }
+                errorSum += rowError;
+                if (sampler != null) {
+                    sampler.recordError(row, rowError);
+                }
+
+                backward();
+            }
+            return errorSum;
+        }
+
+        private void forward() {
+            for (int l = 1; l < layerSizes.length; l++) {
+                double[] in = activations[l - 1];
+                double[] out = activations[l];
+                double[] w = weights[l - 1];
+                int inputs = layerSizes[l - 1];
+                for (int j = 0; j < out.length; j++) {
+                    int offset = j * (inputs + 1);
+                    double net = 0.0;
+                    for (int i = 0; i < inputs; i++) {
+                        net += w[offset + i] * in[i];
+                    }
+                    net += w[offset + inputs];
+                    out[j] = sigmoid(net);
+                }
+            }
+        }
+
+        private void backward() {
+            for (int l = layerSizes.length - 1; l >= 1; l--) {
+                double[] in = activations[l - 1];
+                double[] delta = deltas[l];
+                double[] w = weights[l - 1];
+                double[] gradient = gradients[l - 1];
+                int inputs = layerSizes[l - 1];
+
+                for (int j = 0; j < delta.length; j++) {
+                    int offset = j * (inputs + 1);
+                    for (int i = 0; i < inputs; i++) {
+                        gradient[offset + i] += delta[j] * in[i];
+                    }
+                    gradient[offset + inputs] += delta[j];
+                }
+
+                if (l > 1) {
+                    // Propagar o erro para a camada anterior
+                    double[] previousDelta = deltas[l - 1];
+                    for (int i = 0; i < inputs; i++) {
+                        double sum = 0.0;
+                        for (int j = 0; j < delta.length; j++) {
+                            sum += w[j * (inputs + 1) + i] * delta[j];
+                        }
+                        previousDelta[i] = sum * slope * in[i] * (1.0 - in[i]);
+                    }
+                }
+            }
+        }
+
+        private double sigmoid(double net) {
+            if (net > 100) return 1.0;
+            if (net < -100) return 0.0;
+            return 1.0 / (1.0 + Math.exp(-slope * net));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.neuroph.core.NeuralNetwork;
+
+/**
+ * Compara o tempo de carga do modelo em .nnet (serialização Java do
+ * Neuroph) e no {@link ModelSnapshot}. A partida a frio é medida em JVMs
+ * novas, uma por carga, como num job de inferência de curta duração; a
+ * carga a quente é repetida na mesma JVM, com os bytes alocados por carga.
+ * Também confere que os dois formatos produzem as mesmas saídas.
+ * Executar: java -cp "lib\*;bin" ModelLoadBenchmark [rede.nnet] [repetições]
+ */
+public class ModelLoadBenchmark {
+
+    private static final int COLD_RUNS = 5;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && "--load-once".equals(args[0])) {
+            // Processo filho da medição a frio
+            long start = System.nanoTime();
+            CompiledScorer scorer = load(args[1]);
+            System.out.println((System.nanoTime() - start) + " " + scorer.getInputCount());
+            return;
+        }
+
+        String networkFile = args.length > 0 ? args[0] : "bankPredictionNetwork.nnet";
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        File snapshot = File.createTempFile("model-snapshot", ModelSnapshot.SUFFIX);
+        snapshot.deleteOnExit();
+        ModelSnapshot.write(CompiledScorer.compile(NeuralNetwork.createFromFile(networkFile)), snapshot.getPath());
+
+        System.out.println("=== CARGA DO MODELO ===");
+        System.out.println(String.format("%s: %d bytes; snapshot: %d bytes",
+            networkFile, new File(networkFile).length(), snapshot.length()));
+
+        CompiledScorer fromNnet = load(networkFile);
+        CompiledScorer fromSnapshot = load(snapshot.getPath());
+        System.out.println("Diferença máxima entre as saídas: " + maxDifference(fromNnet, fromSnapshot));
+
+        System.out.println(String.format("%-12s %16s %16s %16s", "formato", "frio (ms)", "quente (ms)", "bytes/carga"));
+        report(".nnet", networkFile, repetitions);
+        report("snapshot", snapshot.getPath(), repetitions);
+    }
+
+    private static void report(String label, String filename, int repetitions) throws Exception {
+        double cold = coldStartMillis(filename);
+
+        for (int i = 0; i < 5; i++) { // Aquecimento do JIT
+            load(filename);
+        }
+        long threadId = Thread.currentThread().getId();
+        long allocated = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < repetitions; i++) {
+            load(filename);
+        }
+        double warm = (System.nanoTime() - start) / 1e6 / repetitions;
+        allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated;
+
+        System.out.println(String.format("%-12s %16.2f %16.3f %16d", label, cold, warm, allocated / repetitions));
+    }
+
+    /**
+     * Mediana do tempo da primeira carga em JVMs novas.
+     */
+    private static double coldStartMillis(String filename) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        double[] times = new double[COLD_RUNS];
+        for (int run = 0; run < COLD_RUNS; run++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ModelLoadBenchmark.class.getName(), "--load-once", filename).redirectErrorStream(true).start();
+            String result = null;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isEmpty() && Character.isDigit(line.charAt(0))) {
+                        result = line;
+                    }
+                }
+            }
+            if (process.waitFor() != 0 || result == null) {
+                throw new IOException("Falha ao medir a carga a frio de " + filename);
+            }
+            times[run] = Long.parseLong(result.split(" ")[0]) / 1e6;
+        }
+        Arrays.sort(times);
+        return times[COLD_RUNS / 2];
+    }
+
+    private static CompiledScorer load(String filename) throws IOException {
+        return ModelSnapshot.loadScorer(filename);
+    }
+
+    private static double maxDifference(CompiledScorer a, CompiledScorer b) {
+        int inputs = a.getInputCount();
+        int rows = 10000;
+        double[] data = new double[rows * inputs];
+        Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextDouble();
+        }
+        double[] outA = new double[rows * a.getOutputCount()];
+        double[] outB = new double[rows * b.getOutputCount()];
+        a.score(data, rows, outA, a.newWorkspace());
+        b.score(data, rows, outB, b.newWorkspace());
+
+        double max = 0;
+        for (int i = 0; i < outA.length; i++) {
+            max = Math.max(max, Math.abs(outA[i] - outB[i]));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,310 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neuroph.core.Layer;
+import org.neuroph.core.NeuralNetwork;
+import org.neuroph.core.Neuron;
+import org.neuroph.core.transfer.Linear;
+import org.neuroph.core.transfer.Sigmoid;
+import org.neuroph.core.transfer.Tanh;
+import org.neuroph.core.transfer.TransferFunction;
+import org.neuroph.nnet.MultiLayerPerceptron;
+import org.neuroph.nnet.comp.neuron.BiasNeuron;
+import org.neuroph.util.TransferFunctionType;
+
+/**
+ * Formato binário compacto para o modelo treinado, alternativo ao .nnet
+ * (serialização Java do grafo de objetos do Neuroph). Guarda só a topologia,
+ * a função de transferência, os pesos em vetores planos e, para redes do
+ * Bank Marketing, os vocabulários da codificação. A leitura mapeia o arquivo
+ * em memória e copia os pesos em bloco para o {@link CompiledScorer}, sem
+ * criar neurônios nem conexões.
+ *
+ * Formato (little-endian):
+ *   int    MAGIC
+ *   int    FORMAT_VERSION
+ *   int    função de transferência (0 sigmoide, 1 tanh, 2 linear)
+ *   double slope
+ *   double amplitude
+ *   long   impressão digital da codificação (0 = sem codificação)
+ *   int    número de camadas, seguido dos neurônios de cada uma (sem bias)
+ *   int    número de vocabulários; cada um: nome, número de valores, valores
+ *          (textos como int tamanho + bytes UTF-8)
+ *   ...    alinhamento a 8 bytes
+ *   double pesos de cada camada, no layout do CompiledScorer
+ *
+ * Executar: java -cp "lib\*;bin" ModelSnapshot [to-snapshot|to-nnet] entrada saída
+ */
+public class ModelSnapshot {
+
+    static final String SUFFIX = ".model";
+
+    private static final int MAGIC = 0x424E4B4D; // "BNKM"
+    private static final int FORMAT_VERSION = 1;
+
+    private final CompiledScorer scorer;
+    private final long encodingFingerprint;
+    private final Map<String, String[]> vocabularies;
+
+    private ModelSnapshot(CompiledScorer scorer, long encodingFingerprint, Map<String, String[]> vocabularies) {
+        this.scorer = scorer;
+        this.encodingFingerprint = encodingFingerprint;
+        this.vocabularies = vocabularies;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !("to-snapshot".equals(args[0]) || "to-nnet".equals(args[0]))) {
+            System.out.println("Uso: ModelSnapshot [to-snapshot|to-nnet] entrada saída");
+            return;
+        }
+
+        long start = System.nanoTime();
+        if ("to-snapshot".equals(args[0])) {
+            write(CompiledScorer.compile(NeuralNetwork.createFromFile(args[1])), args[2]);
+        } else {
+            load(args[1]).toNetwork().save(args[2]);
+        }
+        System.out.println(String.format("%s -> %s em %.1f ms", args[1], args[2], (System.nanoTime() - start) / 1e6));
+    }
+
+    public CompiledScorer getScorer() {
+        return scorer;
+    }
+
+    public long getEncodingFingerprint() {
+        return encodingFingerprint;
+    }
+
+    /**
+     * Vocabulários gravados com o modelo, por nome de coluna (vazio se o
+     * modelo não usa a codificação do Bank Marketing).
+     */
+    public Map<String, String[]> getVocabularies() {
+        return Collections.unmodifiableMap(vocabularies);
+    }
+
+    /**
+     * Verdadeiro se o modelo foi gravado com a mesma codificação usada hoje
+     * por {@link BankFeatureEncoder}.
+     */
+    public boolean isEncodingCurrent() {
+        return encodingFingerprint == BankFeatureEncoder.fingerprint();
+    }
+
+    /**
+     * Recria a rede do Neuroph com a mesma topologia e os mesmos pesos.
+     */
+    public MultiLayerPerceptron toNetwork() {
+        TransferFunctionType type;
+        switch (scorer.getActivation()) {
+            case SIGMOID: type = TransferFunctionType.SIGMOID; break;
+            case TANH: type = TransferFunctionType.TANH; break;
+            default: type = TransferFunctionType.LINEAR; break;
+        }
+
+        MultiLayerPerceptron network = new MultiLayerPerceptron(type, scorer.getLayerSizes());
+        List<Layer> layers = network.getLayers();
+        for (int l = 1; l < layers.size(); l++) {
+            for (Neuron neuron : layers.get(l).getNeurons()) {
+                if (!(neuron instanceof BiasNeuron)) {
+                    configure(neuron.getTransferFunction(), scorer.getSlope(), scorer.getAmplitude());
+                }
+            }
+        }
+        scorer.applyTo(network);
+        return network;
+    }
+
+    /**
+     * Grava o modelo. Redes com as 16 entradas do Bank Marketing levam junto
+     * os vocabulários e a impressão digital da codificação atual.
+     */
+    public static void write(CompiledScorer scorer, String filename) throws IOException {
+        Map<String, String[]> vocabularies = new LinkedHashMap<>();
+        long fingerprint = 0;
+        if (scorer.getInputCount() == BankMarketingPerceptron.INPUT_SIZE) {
+            fingerprint = BankFeatureEncoder.fingerprint();
+            for (CategoricalEncoder encoder : BankFeatureEncoder.CATEGORICAL_COLUMNS) {
+                vocabularies.put(encoder.getName(), encoder.getValues());
+            }
+        }
+
+        int[] layerSizes = scorer.getLayerSizes();
+        double[][] weights = scorer.copyWeights();
+
+        List<byte[]> texts = new ArrayList<>();
+        int headerSize = 4 + 4 + 4 + 8 + 8 + 8 + 4 + 4 * layerSizes.length + 4;
+        for (Map.Entry<String, String[]> vocabulary : vocabularies.entrySet()) {
+            texts.add(vocabulary.getKey().getBytes(StandardCharsets.UTF_8));
+            headerSize += 4 + texts.get(texts.size() - 1).length + 4;
+            for (String value : vocabulary.getValue()) {
+                texts.add(value.getBytes(StandardCharsets.UTF_8));
+                headerSize += 4 + texts.get(texts.size() - 1).length;
+            }
+        }
+        int weightsOffset = align(headerSize);
+        int weightCount = 0;
+        for (double[] layer : weights) {
+            weightCount += layer.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(weightsOffset + weightCount * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(scorer.getActivation().ordinal());
+        buffer.putDouble(scorer.getSlope());
+        buffer.putDouble(scorer.getAmplitude());
+        buffer.putLong(fingerprint);
+        buffer.putInt(layerSizes.length);
+        for (int size : layerSizes) {
+            buffer.putInt(size);
+        }
+        buffer.putInt(vocabularies.size());
+        int text = 0;
+        for (String[] values : vocabularies.values()) {
+            putText(buffer, texts.get(text++));
+            buffer.putInt(values.length);
+            for (int i = 0; i < values.length; i++) {
+                putText(buffer, texts.get(text++));
+            }
+        }
+        buffer.position(weightsOffset);
+        for (double[] layer : weights) {
+            buffer.asDoubleBuffer().put(layer);
+            buffer.position(buffer.position() + layer.length * 8);
+        }
+        buffer.flip();
+
+        AtomicFiles.write(Paths.get(filename), buffer);
+    }
+
+    /**
+     * Mapeia o arquivo e monta o scorer.
+     */
+    public static ModelSnapshot load(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Modelo maior que 2 GB: " + filename);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                return read(mapped, filename);
+            } catch (RuntimeException e) {
+                throw new IOException("Modelo inválido: " + filename, e);
+            }
+        }
+    }
+
+    /**
+     * Carrega o scorer de um snapshot ou, se o arquivo não for um, de um .nnet.
+     * Avisa quando o snapshot foi gravado com outra codificação (por exemplo,
+     * outra {@link NormalizationSpec}), pois as entradas não correspondem.
+     */
+    public static CompiledScorer loadScorer(String filename) throws IOException {
+        if (isSnapshot(filename)) {
+            ModelSnapshot snapshot = load(filename);
+            if (snapshot.getEncodingFingerprint() != 0 && !snapshot.isEncodingCurrent()) {
+                System.err.println("Aviso: " + filename + " foi gravado com outra codificação; normalização atual: "
+                    + BankFeatureEncoder.getSpec().getSource() + ". Treine o modelo novamente ou use a especificação original.");
+            }
+            return snapshot.getScorer();
+        }
+        return CompiledScorer.compile(NeuralNetwork.createFromFile(filename));
+    }
+
+    public static boolean isSnapshot(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // ler os 4 primeiros bytes
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    private static ModelSnapshot read(ByteBuffer buffer, String filename) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Arquivo não é um snapshot de modelo: " + filename);
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Versão de snapshot não suportada (" + version + "): " + filename);
+        }
+        int activationCode = buffer.getInt();
+        CompiledScorer.Activation[] activations = CompiledScorer.Activation.values();
+        if (activationCode < 0 || activationCode >= activations.length) {
+            throw new IOException("Função de transferência desconhecida (" + activationCode + "): " + filename);
+        }
+        double slope = buffer.getDouble();
+        double amplitude = buffer.getDouble();
+        long fingerprint = buffer.getLong();
+
+        int[] layerSizes = new int[buffer.getInt()];
+        for (int l = 0; l < layerSizes.length; l++) {
+            layerSizes[l] = buffer.getInt();
+        }
+
+        int vocabularyCount = buffer.getInt();
+        Map<String, String[]> vocabularies = new LinkedHashMap<>();
+        for (int v = 0; v < vocabularyCount; v++) {
+            String name = getText(buffer);
+            String[] values = new String[buffer.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = getText(buffer);
+            }
+            vocabularies.put(name, values);
+        }
+
+        buffer.position(align(buffer.position()));
+        double[][] weights = new double[layerSizes.length - 1][];
+        for (int l = 1; l < layerSizes.length; l++) {
+            weights[l - 1] = new double[layerSizes[l] * (layerSizes[l - 1] + 1)];
+            buffer.asDoubleBuffer().get(weights[l - 1]);
+            buffer.position(buffer.position() + weights[l - 1].length * 8);
+        }
+        if (buffer.hasRemaining()) {
+            throw new IOException("Bytes sobrando após os pesos: " + filename);
+        }
+
+        CompiledScorer scorer = new CompiledScorer(layerSizes, weights, activations[activationCode], slope, amplitude);
+        return new ModelSnapshot(scorer, fingerprint, vocabularies);
+    }
+
+    private static void configure(TransferFunction transfer, double slope, double amplitude) {
+        if (transfer instanceof Sigmoid) {
+            ((Sigmoid) transfer).setSlope(slope);
+        } else if (transfer instanceof Tanh) {
+            ((Tanh) transfer).setSlope(slope);
+            ((Tanh) transfer).setAmplitude(amplitude);
+        } else if (transfer instanceof Linear) {
+            ((Linear) transfer).setSlope(slope);
+        }
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private static void putText(ByteBuffer buffer, byte[] text) {
+        buffer.putInt(text.length);
+        buffer.put(text);
+    }
+
+    private static String getText(ByteBuffer buffer) {
+        byte[] text = new byte[buffer.getInt()];
+        buffer.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
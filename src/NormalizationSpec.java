@@ -0,0 +1,193 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Normalização das 7 colunas numéricas, num arquivo de propriedades
+ * versionado. Cada coluna tem uma transformação
+ *
+ *   linear: (x - offset) / scale
+ *   tanh:   tanh((x - offset) / scale)
+ *
+ * e, opcionalmente, um valor sentinela codificado como 0 (pdays = -1,
+ * "nunca contactado"). {@link #DEFAULT} reproduz exatamente as constantes
+ * históricas (idade / 100, tanh(saldo / 10000), ...); {@link #fit} deriva
+ * as escalas de um {@link FeatureProfile}.
+ *
+ * Formato:
+ *   format=1
+ *   source=bank_assets/bank.csv
+ *   age=linear;0;100
+ *   pdays=tanh;0;365;-1
+ */
+public class NormalizationSpec {
+
+    public static final int FORMAT_VERSION = 1;
+
+    /** Arquivo carregado por {@link BankFeatureEncoder} ao iniciar, se existir. */
+    public static final String DEFAULT_FILE = "normalization.properties";
+
+    /** Colunas numéricas do CSV, na ordem de {@link #COLUMN_INDEXES}. */
+    public static final String[] COLUMNS = {"age", "balance", "day", "duration", "campaign", "pdays", "previous"};
+    static final int[] COLUMN_INDEXES = {0, 5, 9, 11, 12, 13, 14};
+
+    static final int AGE = 0;
+    static final int BALANCE = 1;
+    static final int DAY = 2;
+    static final int DURATION = 3;
+    static final int CAMPAIGN = 4;
+    static final int PDAYS = 5;
+    static final int PREVIOUS = 6;
+
+    static final double PDAYS_SENTINEL = -1;
+
+    public static final NormalizationSpec DEFAULT = new NormalizationSpec("constantes", new Transform[] {
+        new Transform(Kind.LINEAR, 0, 100, Double.NaN),
+        new Transform(Kind.TANH, 0, 10000, Double.NaN),
+        new Transform(Kind.LINEAR, 0, 31, Double.NaN),
+        new Transform(Kind.TANH, 0, 1000, Double.NaN),
+        new Transform(Kind.TANH, 0, 10, Double.NaN),
+        new Transform(Kind.TANH, 0, 365, PDAYS_SENTINEL),
+        new Transform(Kind.TANH, 0, 10, Double.NaN)
+    });
+
+    public enum Kind { LINEAR, TANH }
+
+    /**
+     * Transformação de uma coluna.
+     */
+    public static final class Transform {
+        final Kind kind;
+        final double offset;
+        final double scale;
+        final double sentinel; // NaN = sem sentinela
+
+        Transform(Kind kind, double offset, double scale, double sentinel) {
+            if (!(scale > 0)) {
+                throw new IllegalArgumentException("Escala deve ser positiva: " + scale);
+            }
+            this.kind = kind;
+            this.offset = offset;
+            this.scale = scale;
+            this.sentinel = sentinel;
+        }
+
+        public double apply(double value) {
+            if (value == sentinel) {
+                return 0;
+            }
+            double z = (value - offset) / scale;
+            return kind == Kind.TANH ? Math.tanh(z) : z;
+        }
+
+        @Override
+        public String toString() {
+            return kind.name().toLowerCase(Locale.ROOT) + ";" + number(offset) + ";" + number(scale)
+                + (Double.isNaN(sentinel) ? "" : ";" + number(sentinel));
+        }
+
+        static Transform parse(String text) {
+            String[] parts = text.split(";");
+            if (parts.length < 3) {
+                throw new IllegalArgumentException("Transformação inválida: " + text);
+            }
+            return new Transform(Kind.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()),
+                parts.length > 3 ? Double.parseDouble(parts[3].trim()) : Double.NaN);
+        }
+
+        private static String number(double value) {
+            return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+        }
+    }
+
+    private final String source;
+    private final Transform[] transforms;
+
+    NormalizationSpec(String source, Transform[] transforms) {
+        if (transforms.length != COLUMNS.length) {
+            throw new IllegalArgumentException("Esperadas " + COLUMNS.length + " transformações");
+        }
+        this.source = source;
+        this.transforms = transforms.clone();
+    }
+
+    /**
+     * Escalas derivadas do perfil dos dados:
+     * - idade e dia (limitados): linear de [mín, máx] para [0, 1];
+     * - saldo, duração, campanhas, pdays e contatos anteriores (cauda longa):
+     *   tanh com escala igual a metade do percentil 95 de |x|, de modo que
+     *   95% dos valores ficam abaixo de tanh(2) = 0.96 e a mediana não é
+     *   esmagada perto de 0. pdays mantém a sentinela -1.
+     */
+    public static NormalizationSpec fit(FeatureProfile profile) {
+        Transform[] transforms = new Transform[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            FeatureProfile.NumericSketch sketch = profile.numeric(c);
+            Transform current = DEFAULT.transforms[c];
+            if (sketch.getCount() == 0) {
+                transforms[c] = current;
+            } else if (c == AGE || c == DAY) {
+                double range = sketch.getMax() - sketch.getMin();
+                transforms[c] = range > 0 ? new Transform(Kind.LINEAR, sketch.getMin(), range, current.sentinel) : current;
+            } else {
+                double spread = Math.max(Math.abs(sketch.quantile(0.05)), Math.abs(sketch.quantile(0.95)));
+                transforms[c] = spread > 0 ? new Transform(Kind.TANH, 0, spread / 2, current.sentinel) : current;
+            }
+        }
+        return new NormalizationSpec(profile.getSource(), transforms);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Transform get(int column) {
+        return transforms[column];
+    }
+
+    public static NormalizationSpec load(String filename) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(Paths.get(filename))) {
+            properties.load(in);
+        }
+        int format = Integer.parseInt(properties.getProperty("format", "0"));
+        if (format != FORMAT_VERSION) {
+            throw new IOException("Versão de " + filename + " não suportada: " + format);
+        }
+        Transform[] transforms = new Transform[COLUMNS.length];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            String value = properties.getProperty(COLUMNS[c]);
+            try {
+                transforms[c] = value != null ? Transform.parse(value) : DEFAULT.transforms[c];
+            } catch (IllegalArgumentException e) {
+                throw new IOException(filename + ", coluna " + COLUMNS[c] + ": " + e.getMessage(), e);
+            }
+        }
+        return new NormalizationSpec(properties.getProperty("source", filename), transforms);
+    }
+
+    public void save(String filename) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("format", Integer.toString(FORMAT_VERSION));
+        properties.setProperty("source", source);
+        for (int c = 0; c < COLUMNS.length; c++) {
+            properties.setProperty(COLUMNS[c], transforms[c].toString());
+        }
+
+        AtomicFiles.write(Paths.get(filename),
+            out -> properties.store(out, "Normalização das colunas numéricas (tipo;deslocamento;escala[;sentinela])"));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (int c = 0; c < COLUMNS.length; c++) {
+            out.append(String.format("%-10s %s%n", COLUMNS[c], transforms[c]));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Avaliação paralela de um {@link CompiledScorer}.
+ * O conjunto de teste é dividido recursivamente num ForkJoinPool; cada
+ * partição usa o seu próprio Workspace e cópias vazias dos
+ * {@link PredictionAccumulator}s, que são somadas ao final. Cada registro é
+ * calculado uma única vez, qualquer que seja o número de acumuladores.
+ */
+public class ParallelEvaluator {
+
+    /** Registros por partição folha. */
+    static final int PARTITION_SIZE = 4096;
+
+    public static final double THRESHOLD = ConfusionMatrix.DEFAULT_THRESHOLD;
+
+    /**
+     * Avalia no pool comum (um worker por núcleo).
+     */
+    public static ConfusionMatrix evaluate(CompiledScorer scorer, EncodedDataset dataset) {
+        return evaluate(scorer, dataset, ForkJoinPool.commonPool());
+    }
+
+    public static ConfusionMatrix evaluate(CompiledScorer scorer, EncodedDataset dataset, ForkJoinPool pool) {
+        ConfusionMatrix matrix = new ConfusionMatrix(THRESHOLD);
+        evaluate(scorer, dataset, pool, matrix);
+        return matrix;
+    }
+
+    /**
+     * Calcula cada registro uma vez e soma as previsões em todos os acumuladores.
+     */
+    public static void evaluate(CompiledScorer scorer, EncodedDataset dataset, PredictionAccumulator... accumulators) {
+        evaluate(scorer, dataset, ForkJoinPool.commonPool(), accumulators);
+    }
+
+    public static void evaluate(CompiledScorer scorer, EncodedDataset dataset, ForkJoinPool pool,
+                                PredictionAccumulator... accumulators) {
+        PredictionAccumulator[] results = pool.invoke(new EvaluationTask(scorer, dataset, accumulators, 0, dataset.size()));
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i].merge(results[i]);
+        }
+    }
+
+    /**
+     * Avaliação na thread atual, para quem já controla o paralelismo (por
+     * exemplo, vários treinamentos avaliados ao mesmo tempo).
+     */
+    public static void evaluateSequential(CompiledScorer scorer, EncodedDataset dataset,
+                                          PredictionAccumulator... accumulators) {
+        evaluateRange(scorer, dataset, 0, dataset.size(), accumulators);
+    }
+
+    private static void evaluateRange(CompiledScorer scorer, EncodedDataset dataset, int from, int to,
+                                      PredictionAccumulator[] accumulators) {
+        int inputCount = scorer.getInputCount();
+        int blockSize = CompiledScorer.DEFAULT_BLOCK_SIZE;
+
+        CompiledScorer.Workspace workspace = scorer.newWorkspace(blockSize);
+        double[] row = new double[inputCount];
+        double[] block = new double[blockSize * inputCount];
+        double[] outputs = new double[blockSize];
+
+        for (int first = from; first < to; first += blockSize) {
+            int count = Math.min(blockSize, to - first);
+            for (int r = 0; r < count; r++) {
+                dataset.readInputs(first + r, row);
+                System.arraycopy(row, 0, block, r * inputCount, inputCount);
+            }
+            scorer.score(block, count, outputs, workspace);
+
+            for (int r = 0; r < count; r++) {
+                boolean actualPositive = dataset.label(first + r) > THRESHOLD;
+                for (PredictionAccumulator accumulator : accumulators) {
+                    accumulator.accept(outputs[r], actualPositive);
+                }
+            }
+        }
+    }
+
+    private static class EvaluationTask extends RecursiveTask<PredictionAccumulator[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledScorer scorer;
+        private final EncodedDataset dataset;
+        private final PredictionAccumulator[] prototypes;
+        private final int from;
+        private final int to;
+
+        EvaluationTask(CompiledScorer scorer, EncodedDataset dataset, PredictionAccumulator[] prototypes,
+                       int from, int to) {
+            this.scorer = scorer;
+            this.dataset = dataset;
+            this.prototypes = prototypes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PredictionAccumulator[] compute() {
+            if (to - from > PARTITION_SIZE) {
+                int middle = (from + to) >>> 1;
+                EvaluationTask left = new EvaluationTask(scorer, dataset, prototypes, from, middle);
+                left.fork();
+                PredictionAccumulator[] right = new EvaluationTask(scorer, dataset, prototypes, middle, to).compute();
+                PredictionAccumulator[] merged = left.join();
+                for (int i = 0; i < merged.length; i++) {
+                    merged[i].merge(right[i]);
+                }
+                return merged;
+            }
+            return evaluateRange();
+        }
+
+        private PredictionAccumulator[] evaluateRange() {
+            PredictionAccumulator[] accumulators = new PredictionAccumulator[prototypes.length];
+            for (int i = 0; i < prototypes.length; i++) {
+                accumulators[i] = prototypes[i].newEmpty();
+            }
+            ParallelEvaluator.evaluateRange(scorer, dataset, from, to, accumulators);
+            return accumulators;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Recebe as probabilidades previstas de uma avaliação, uma por registro.
+ * Como cada registro é calculado uma única vez, todas as métricas
+ * (matriz de confusão, histograma, curvas, calibração) são alimentadas
+ * pela mesma passada. Na avaliação paralela cada partição usa cópias vazias
+ * ({@link #newEmpty()}) que depois são somadas com {@link #merge}.
+ */
+public interface PredictionAccumulator {
+
+    void accept(double probability, boolean actualPositive);
+
+    /**
+     * Acumulador vazio do mesmo tipo e com a mesma configuração.
+     */
+    PredictionAccumulator newEmpty();
+
+    /**
+     * Soma a este os valores de outro acumulador criado por {@link #newEmpty()}.
+     */
+    void merge(PredictionAccumulator other);
+}
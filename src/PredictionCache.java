@@ -0,0 +1,219 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de probabilidades para registros repetidos, na frente do scorer.
+ * A chave é um hash de 128 bits das 16 entradas codificadas e da versão do
+ * modelo ({@link #modelVersion}): 64 bits escolhem a entrada e os outros 64
+ * confirmam o registro, sem guardar as entradas (colisão com chance
+ * desprezível, ~2^-128).
+ *
+ * O cache é dividido em faixas (stripes), cada uma um LinkedHashMap em
+ * ordem de acesso com o seu próprio lock, de modo que threads diferentes
+ * raramente disputam o mesmo lock. Cada faixa guarda até capacity / stripes
+ * entradas e descarta a usada há mais tempo (LRU); entradas com mais de
+ * ttl são descartadas ao serem lidas. Trocar o modelo muda a versão, e
+ * {@link #invalidateAll()} libera as entradas antigas de uma vez.
+ *
+ * Acertos, faltas, descartes por tamanho e por TTL e invalidações são
+ * contados com LongAdder; {@link #toString()} resume as métricas.
+ */
+public class PredictionCache {
+
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public PredictionCache(int capacity, long ttl, TimeUnit unit) {
+        this(capacity, ttl, unit, DEFAULT_STRIPES);
+    }
+
+    public PredictionCache(int capacity, long ttl, TimeUnit unit, int stripeCount) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        int count = Integer.highestOneBit(Math.max(1, Math.min(stripeCount, capacity)));
+        this.stripes = new Stripe[count];
+        for (int s = 0; s < count; s++) {
+            stripes[s] = new Stripe(Math.max(1, capacity / count));
+        }
+        this.ttlNanos = ttl > 0 ? unit.toNanos(ttl) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Versão de um modelo: hash dos pesos, da ativação e da inclinação.
+     * Modelos iguais têm a mesma versão, mesmo carregados de arquivos diferentes.
+     */
+    public static long modelVersion(CompiledScorer scorer) {
+        long hash = 0xcbf29ce484222325L;
+        for (double[] layer : scorer.copyWeights()) {
+            for (double weight : layer) {
+                hash = mix(hash ^ Double.doubleToLongBits(weight));
+            }
+            hash = mix(hash ^ layer.length);
+        }
+        hash = mix(hash ^ scorer.getActivation().ordinal());
+        return mix(hash ^ Double.doubleToLongBits(scorer.getSlope()));
+    }
+
+    /**
+     * Probabilidade guardada para as entradas inputs[offset, offset + 16) no
+     * modelo version, ou NaN se não houver (ou se tiver expirado).
+     */
+    public double get(double[] inputs, int offset, long version) {
+        long key = hash(inputs, offset, version, 0x9e3779b97f4a7c15L);
+        long check = hash(inputs, offset, version, 0xc2b2ae3d27d4eb4fL);
+        Stripe stripe = stripes[(int) (key >>> 32) & (stripes.length - 1)];
+        synchronized (stripe) {
+            CachedPrediction entry = stripe.get(key);
+            if (entry != null && entry.check == check) {
+                if (System.nanoTime() - entry.storedAt <= ttlNanos) {
+                    hits.increment();
+                    return entry.probability;
+                }
+                stripe.remove(key);
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        return Double.NaN;
+    }
+
+    public void put(double[] inputs, int offset, long version, double probability) {
+        long key = hash(inputs, offset, version, 0x9e3779b97f4a7c15L);
+        long check = hash(inputs, offset, version, 0xc2b2ae3d27d4eb4fL);
+        Stripe stripe = stripes[(int) (key >>> 32) & (stripes.length - 1)];
+        synchronized (stripe) {
+            stripe.put(key, new CachedPrediction(check, probability, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Descarta todas as entradas (ex.: um modelo novo foi carregado).
+     */
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        invalidations.increment();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total > 0 ? (double) h / total : 0;
+    }
+
+    /**
+     * Entradas descartadas por falta de espaço (LRU).
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Entradas descartadas por terem passado do TTL.
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        expirations.reset();
+        invalidations.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d entradas, acertos %d, faltas %d (taxa de acerto %.1f%%), descartes %d, expiradas %d",
+            size(), getHits(), getMisses(), hitRate() * 100, getEvictions(), getExpirations());
+    }
+
+    private static long hash(double[] inputs, int offset, long version, long seed) {
+        long hash = mix(seed ^ version);
+        for (int i = 0; i < BankMarketingPerceptron.INPUT_SIZE; i++) {
+            hash = mix(hash ^ Double.doubleToLongBits(inputs[offset + i]));
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizador do SplitMix64: espalha cada bit da entrada por toda a saída.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class CachedPrediction {
+        final long check;
+        final double probability;
+        final long storedAt;
+
+        CachedPrediction(long check, double probability, long storedAt) {
+            this.check = check;
+            this.probability = probability;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /**
+     * Uma faixa: LRU limitado, protegido pelo próprio monitor.
+     */
+    private final class Stripe extends LinkedHashMap<Long, CachedPrediction> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedPrediction> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.neuroph.core.NeuralNetwork;
+
+/**
+ * Mede o ganho do {@link PredictionCache} num log de pedidos reproduzido,
+ * com a repetição típica do discador: os clientes do CSV são sorteados com
+ * popularidade de Zipf (poucos clientes concentram a maior parte dos
+ * pedidos) e, a cada pedido, há 10% de chance de o cliente ter sido
+ * contactado de novo (campaign + 1, o que muda o registro e gera uma falta).
+ *
+ * Cada pedido percorre o caminho do servidor sem o HTTP: codificação da
+ * linha, consulta ao cache e, na falta, inferência de um registro. Modos:
+ * Neuroph (setInput/calculate, como em evaluateModel), {@link CompiledScorer},
+ * e os dois com cache. As threads dividem o log; o Neuroph usa uma rede por
+ * thread. As probabilidades com cache são conferidas com as sem cache.
+ * Executar: java -cp "lib\*;bin" PredictionCacheBenchmark [rede.nnet] [csv] [pedidos] [threads] [capacidade] [TTL em s]
+ */
+public class PredictionCacheBenchmark {
+
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final double RECONTACT_PROBABILITY = 0.1;
+    private static final int CAMPAIGN_FIELD = 12;
+    private static final int WARMUP_REQUESTS = 20000;
+
+    public static void main(String[] args) throws Exception {
+        String networkFile = args.length > 0 ? args[0] : "bankPredictionNetwork.nnet";
+        String csv = args.length > 1 ? args[1] : "bank_assets/bank.csv";
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 200000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int capacity = args.length > 4 ? Integer.parseInt(args[4]) : 100000;
+        int ttlSeconds = args.length > 5 ? Integer.parseInt(args[5]) : 300;
+
+        byte[][] log = replayLog(csv, requests, 42);
+        CompiledScorer scorer = CompiledScorer.compile(NeuralNetwork.createFromFile(networkFile));
+        long distinct = Arrays.stream(log).map(record -> new String(record, StandardCharsets.UTF_8)).distinct().count();
+
+        System.out.println("=== CACHE DE PREVISÕES ===");
+        System.out.println(String.format("%d pedidos, %d registros distintos (%.1f%% repetidos), %d threads,"
+            + " cache de %d entradas, TTL %d s", requests, distinct, 100.0 * (requests - distinct) / requests,
+            threads, capacity, ttlSeconds));
+        System.out.println(String.format("%-24s %12s %10s %8s %8s %8s %10s %10s", "Modo", "Pedidos/s",
+            "Média µs", "p50 µs", "p99 µs", "Acertos", "Descartes", "Diferença"));
+
+        double[] reference = new double[requests];
+        run("Neuroph", networkFile, null, null, log, threads, reference, null);
+        run("Neuroph + cache", networkFile, null, newCache(capacity, ttlSeconds), log, threads, new double[requests], reference);
+        run("CompiledScorer", null, scorer, null, log, threads, new double[requests], reference);
+        run("CompiledScorer + cache", null, scorer, newCache(capacity, ttlSeconds), log, threads, new double[requests], reference);
+    }
+
+    private static PredictionCache newCache(int capacity, int ttlSeconds) {
+        return new PredictionCache(capacity, ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Sequência de linhas do CSV (em bytes) com repetição de Zipf e recontatos.
+     */
+    static byte[][] replayLog(String csv, int requests, long seed) throws IOException {
+        List<String[]> customers = new ArrayList<>();
+        boolean header = true;
+        for (String line : Files.readAllLines(Paths.get(csv), StandardCharsets.UTF_8)) {
+            if (header) {
+                header = false;
+            } else if (!line.isEmpty()) {
+                customers.add(line.split(";", -1));
+            }
+        }
+
+        // Popularidade: o cliente de posição k (ordem sorteada) tem peso 1 / k^s
+        Random random = new Random(seed);
+        int[] order = new int[customers.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        double[] cumulative = new double[order.length];
+        double total = 0;
+        for (int k = 0; k < order.length; k++) {
+            total += 1.0 / Math.pow(k + 1, ZIPF_EXPONENT);
+            cumulative[k] = total;
+        }
+
+        byte[][] log = new byte[requests][];
+        for (int r = 0; r < requests; r++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            String[] fields = customers.get(order[rank < 0 ? -rank - 1 : rank]);
+            if (random.nextDouble() < RECONTACT_PROBABILITY) {
+                fields[CAMPAIGN_FIELD] = Integer.toString(Integer.parseInt(fields[CAMPAIGN_FIELD].trim()) + 1);
+            }
+            log[r] = String.join(";", fields).getBytes(StandardCharsets.UTF_8);
+        }
+        return log;
+    }
+
+    private static void run(String name, final String networkFile, final CompiledScorer scorer,
+                            final PredictionCache cache, final byte[][] log, int threads,
+                            final double[] results, double[] reference) throws Exception {
+        final LatencyRecorder latency = new LatencyRecorder();
+        final int threadCount = Math.max(1, threads);
+
+        // Aquecimento do JIT, com um cache descartável
+        replay(networkFile, scorer, cache != null ? newCache(WARMUP_REQUESTS, 0) : null, log, 0, 1,
+            Math.min(WARMUP_REQUESTS, log.length), results, new LatencyRecorder());
+
+        List<Thread> workers = new ArrayList<>();
+        final Exception[] failure = new Exception[1];
+        long start = System.nanoTime();
+        for (int t = 0; t < threadCount; t++) {
+            final int first = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    replay(networkFile, scorer, cache, log, first, threadCount, log.length, results, latency);
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            }, "replay-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : workers) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+
+        double difference = 0;
+        if (reference != null) {
+            for (int r = 0; r < results.length; r++) {
+                difference = Math.max(difference, Math.abs(results[r] - reference[r]));
+            }
+        }
+        System.out.println(String.format("%-24s %12.0f %10.2f %8d %8d %7.1f%% %10d %10.1e", name,
+            log.length / seconds, latency.getMeanMicros(), latency.percentileMicros(50), latency.percentileMicros(99),
+            cache != null ? cache.hitRate() * 100 : 0.0, cache != null ? cache.getEvictions() : 0, difference));
+    }
+
+    /**
+     * Atende os pedidos first, first + step, ... abaixo de end, registrando a latência de cada um.
+     */
+    private static void replay(String networkFile, CompiledScorer scorer, PredictionCache cache, byte[][] log,
+                               int first, int step, int end, double[] results, LatencyRecorder latency)
+            throws IOException {
+        NeuralNetwork<?> network = scorer == null ? NeuralNetwork.createFromFile(networkFile) : null;
+        CompiledScorer.Workspace workspace = scorer != null ? scorer.newWorkspace() : null;
+        long version = PredictionCache.modelVersion(scorer != null ? scorer : CompiledScorer.compile(network));
+        BankCsvReader reader = new BankCsvReader();
+        double[] row = new double[BankMarketingPerceptron.INPUT_SIZE];
+
+        for (int r = first; r < end; r += step) {
+            long start = System.nanoTime();
+            byte[] record = log[r];
+            reader.encodeInputs(record, 0, record.length, row);
+            double probability = cache != null ? cache.get(row, 0, version) : Double.NaN;
+            if (Double.isNaN(probability)) {
+                if (network != null) {
+                    network.setInput(row);
+                    network.calculate();
+                    probability = network.getOutput()[0];
+                } else {
+                    probability = scorer.score(row, workspace);
+                }
+                if (cache != null) {
+                    cache.put(row, 0, version, probability);
+                }
+            }
+            results[r] = probability;
+            latency.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Histograma das probabilidades previstas em faixas de mesma largura
+ * entre 0 e 1, separado por classe real.
+ */
+public class ProbabilityHistogram implements PredictionAccumulator {
+
+    private final long[] positives;
+    private final long[] negatives;
+
+    public ProbabilityHistogram(int bins) {
+        positives = new long[bins];
+        negatives = new long[bins];
+    }
+
+    @Override
+    public void accept(double probability, boolean actualPositive) {
+        int bin = bin(probability, positives.length);
+        if (actualPositive) {
+            positives[bin]++;
+        } else {
+            negatives[bin]++;
+        }
+    }
+
+    @Override
+    public ProbabilityHistogram newEmpty() {
+        return new ProbabilityHistogram(positives.length);
+    }
+
+    @Override
+    public void merge(PredictionAccumulator other) {
+        ProbabilityHistogram histogram = (ProbabilityHistogram) other;
+        for (int i = 0; i < positives.length; i++) {
+            positives[i] += histogram.positives[i];
+            negatives[i] += histogram.negatives[i];
+        }
+    }
+
+    public int getBinCount() {
+        return positives.length;
+    }
+
+    /**
+     * Registros na faixa, das duas classes.
+     */
+    public long getCount(int bin) {
+        return positives[bin] + negatives[bin];
+    }
+
+    public long getPositives(int bin) {
+        return positives[bin];
+    }
+
+    public long getNegatives(int bin) {
+        return negatives[bin];
+    }
+
+    public long getTotal() {
+        long total = 0;
+        for (int i = 0; i < positives.length; i++) {
+            total += positives[i] + negatives[i];
+        }
+        return total;
+    }
+
+    /**
+     * Faixa de uma probabilidade; 1.0 cai na última faixa.
+     */
+    static int bin(double probability, int bins) {
+        int bin = (int) (probability * bins);
+        return bin < 0 ? 0 : Math.min(bin, bins - 1);
+    }
+}
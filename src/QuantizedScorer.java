@@ -0,0 +1,348 @@
+import java.util.Arrays;
+
+/**
+ * Versão de precisão reduzida de um {@link CompiledScorer} sigmoide, para
+ * pontuação em massa. Duas precisões:
+ *
+ * - FLOAT32: pesos e ativações em float;
+ * - INT8: pesos em int8 simétrico e produto escalar em int. Cada neurônio
+ *   tem a sua escala de pesos (maior |peso| / 127). As entradas são
+ *   quantizadas em int8 com uma escala por atributo, calibrada num conjunto
+ *   de registros e incorporada aos pesos da primeira camada; as ativações
+ *   ocultas (sigmoide, em [0, 1]) usam 8 bits sem sinal (escala 1/255). O
+ *   bias fica em float e é somado depois da multiplicação pela escala.
+ *   As ativações quantizadas ficam em vetores int no workspace, o que
+ *   permite ao JIT vetorizar o produto escalar.
+ *
+ * Sem instruções de int8 acessíveis ao Java, o INT8 reduz a memória dos
+ * pesos (cerca de 6x), mas não a latência: a multiplicação de inteiros
+ * vetorizada pelo JIT não é mais rápida que a de float. Para vazão, use FLOAT32.
+ *
+ * Em ambas a sigmoide é calculada por uma tabela com interpolação linear
+ * (erro máximo ~1e-6). A saída não é quantizada. As probabilidades diferem
+ * das do modelo original; o efeito nas métricas é medido por {@link BulkScorer}
+ * antes de usar o modelo quantizado. A instância é imutável e pode ser
+ * compartilhada entre threads; cada thread usa o seu próprio {@link Workspace}.
+ */
+public class QuantizedScorer {
+
+    public enum Precision { FLOAT32, INT8 }
+
+    private static final int Q_MAX = 127;          // int8 simétrico: pesos e entradas
+    private static final int ACTIVATION_MAX = 255; // uint8: ativações ocultas
+    private static final float ACTIVATION_SCALE = 1.0f / ACTIVATION_MAX;
+
+    // Tabela da sigmoide em [-SIGMOID_RANGE, SIGMOID_RANGE]; fora dela a saída é 0 ou 1
+    private static final float SIGMOID_RANGE = 16.0f;
+    private static final int SIGMOID_STEPS = 4096;
+    private static final float SIGMOID_STEPS_PER_UNIT = SIGMOID_STEPS / (2 * SIGMOID_RANGE);
+    private static final float[] SIGMOID_TABLE = new float[SIGMOID_STEPS + 2];
+
+    static {
+        for (int i = 0; i < SIGMOID_TABLE.length; i++) {
+            double x = -SIGMOID_RANGE + i / (double) SIGMOID_STEPS_PER_UNIT;
+            SIGMOID_TABLE[i] = (float) (1.0 / (1.0 + Math.exp(-x)));
+        }
+    }
+
+    private final Precision precision;
+    private final int[] layerSizes;
+    private final float slope;
+
+    private final float[][] floatWeights;  // FLOAT32: mesmo layout do CompiledScorer
+    private final byte[][] byteWeights;    // INT8: [camada][neurônio * entradas + entrada], sem bias
+    private final float[][] weightScales;  // INT8: [camada][neurônio]
+    private final float[][] biases;        // INT8: [camada][neurônio]
+    private final float[] inputScales;     // INT8: [atributo]
+    private final float[] inputInverseScales;
+
+    private QuantizedScorer(Precision precision, int[] layerSizes, float slope, float[][] floatWeights,
+                            byte[][] byteWeights, float[][] weightScales, float[][] biases, float[] inputScales) {
+        this.precision = precision;
+        this.layerSizes = layerSizes;
+        this.slope = slope;
+        this.floatWeights = floatWeights;
+        this.byteWeights = byteWeights;
+        this.weightScales = weightScales;
+        this.biases = biases;
+        this.inputScales = inputScales;
+        if (inputScales != null) {
+            inputInverseScales = new float[inputScales.length];
+            for (int i = 0; i < inputScales.length; i++) {
+                inputInverseScales[i] = 1.0f / inputScales[i];
+            }
+        } else {
+            inputInverseScales = null;
+        }
+    }
+
+    /**
+     * Quantiza um scorer sigmoide. Para INT8, calibration define a escala de
+     * cada entrada (maior |valor| observado); se for null, as entradas são
+     * consideradas em [-1, 1], o intervalo do {@link BankFeatureEncoder}.
+     */
+    public static QuantizedScorer quantize(CompiledScorer scorer, Precision precision, EncodedDataset calibration) {
+        if (scorer.getActivation() != CompiledScorer.Activation.SIGMOID) {
+            throw new IllegalArgumentException("QuantizedScorer suporta apenas redes sigmoides");
+        }
+        int[] sizes = scorer.getLayerSizes();
+        double[][] weights = scorer.copyWeights();
+        float slope = (float) scorer.getSlope();
+
+        if (precision == Precision.FLOAT32) {
+            float[][] floatWeights = new float[weights.length][];
+            for (int l = 0; l < weights.length; l++) {
+                floatWeights[l] = new float[weights[l].length];
+                for (int i = 0; i < weights[l].length; i++) {
+                    floatWeights[l][i] = (float) weights[l][i];
+                }
+            }
+            return new QuantizedScorer(precision, sizes, slope, floatWeights, null, null, null, null);
+        }
+
+        float[] inputScales = inputScales(sizes[0], calibration);
+        byte[][] byteWeights = new byte[weights.length][];
+        float[][] weightScales = new float[weights.length][];
+        float[][] biases = new float[weights.length][];
+        for (int l = 0; l < weights.length; l++) {
+            int inputs = sizes[l];
+            int neurons = sizes[l + 1];
+            byteWeights[l] = new byte[neurons * inputs];
+            weightScales[l] = new float[neurons];
+            biases[l] = new float[neurons];
+
+            for (int j = 0; j < neurons; j++) {
+                int offset = j * (inputs + 1);
+                // Peso efetivo: peso * escala da entrada (atributo na 1ª camada, 1/255 nas demais)
+                double max = 0;
+                for (int i = 0; i < inputs; i++) {
+                    max = Math.max(max, Math.abs(weights[l][offset + i] * inputScale(l, i, inputScales)));
+                }
+                double scale = max > 0 ? max / Q_MAX : 1.0;
+                for (int i = 0; i < inputs; i++) {
+                    long q = Math.round(weights[l][offset + i] * inputScale(l, i, inputScales) / scale);
+                    byteWeights[l][j * inputs + i] = (byte) Math.max(-Q_MAX, Math.min(Q_MAX, q));
+                }
+                weightScales[l][j] = (float) scale;
+                biases[l][j] = (float) weights[l][offset + inputs];
+            }
+        }
+        return new QuantizedScorer(precision, sizes, slope, null, byteWeights, weightScales, biases, inputScales);
+    }
+
+    private static float[] inputScales(int inputCount, EncodedDataset calibration) {
+        double[] max = new double[inputCount];
+        if (calibration == null) {
+            Arrays.fill(max, 1.0);
+        } else {
+            double[] row = new double[inputCount];
+            for (int r = 0; r < calibration.size(); r++) {
+                calibration.readInputs(r, row);
+                for (int i = 0; i < inputCount; i++) {
+                    max[i] = Math.max(max[i], Math.abs(row[i]));
+                }
+            }
+        }
+        float[] scales = new float[inputCount];
+        for (int i = 0; i < inputCount; i++) {
+            scales[i] = max[i] > 0 ? (float) (max[i] / Q_MAX) : 1.0f;
+        }
+        return scales;
+    }
+
+    private static double inputScale(int layer, int input, float[] inputScales) {
+        return layer == 0 ? inputScales[input] : ACTIVATION_SCALE;
+    }
+
+    public Precision getPrecision() {
+        return precision;
+    }
+
+    public int getInputCount() {
+        return layerSizes[0];
+    }
+
+    public int getOutputCount() {
+        return layerSizes[layerSizes.length - 1];
+    }
+
+    /**
+     * Bytes ocupados pelos pesos (e escalas), para comparar com os 8 bytes por peso do double.
+     */
+    public long getWeightBytes() {
+        long bytes = 0;
+        for (int l = 0; l < layerSizes.length - 1; l++) {
+            if (precision == Precision.FLOAT32) {
+                bytes += 4L * floatWeights[l].length;
+            } else {
+                bytes += byteWeights[l].length + 8L * weightScales[l].length;
+            }
+        }
+        return precision == Precision.INT8 ? bytes + 4L * inputScales.length : bytes;
+    }
+
+    public Workspace newWorkspace(int blockSize) {
+        return new Workspace(layerSizes, blockSize);
+    }
+
+    public Workspace newWorkspace() {
+        return newWorkspace(CompiledScorer.DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Calcula as saídas de rows registros, com o mesmo layout de
+     * {@link CompiledScorer#score(double[], int, double[], CompiledScorer.Workspace)}.
+     */
+    public void score(double[] inputs, int rows, double[] outputs, Workspace workspace) {
+        int inputCount = getInputCount();
+        int outputCount = getOutputCount();
+        int last = layerSizes.length - 1;
+        for (int first = 0; first < rows; first += workspace.blockSize) {
+            int count = Math.min(workspace.blockSize, rows - first);
+
+            // Transpor (e quantizar) o bloco para o layout [atributo][registro]
+            if (precision == Precision.FLOAT32) {
+                float[] in = workspace.floats[0];
+                for (int r = 0; r < count; r++) {
+                    int source = (first + r) * inputCount;
+                    for (int i = 0; i < inputCount; i++) {
+                        in[i * count + r] = (float) inputs[source + i];
+                    }
+                }
+                forwardFloat(count, workspace);
+            } else {
+                int[] in = workspace.ints[0];
+                for (int r = 0; r < count; r++) {
+                    int source = (first + r) * inputCount;
+                    for (int i = 0; i < inputCount; i++) {
+                        in[i * count + r] = quantize((float) inputs[source + i] * inputInverseScales[i], Q_MAX);
+                    }
+                }
+                forwardInt8(count, workspace);
+            }
+
+            float[] out = workspace.floats[last];
+            for (int r = 0; r < count; r++) {
+                for (int j = 0; j < outputCount; j++) {
+                    outputs[(first + r) * outputCount + j] = out[j * count + r];
+                }
+            }
+        }
+    }
+
+    /**
+     * Probabilidade (primeira saída) de um único registro.
+     */
+    public double score(double[] inputs, Workspace workspace) {
+        score(inputs, 1, workspace.single, workspace);
+        return workspace.single[0];
+    }
+
+    private void forwardFloat(int count, Workspace workspace) {
+        for (int l = 1; l < layerSizes.length; l++) {
+            float[] in = workspace.floats[l - 1];
+            float[] out = workspace.floats[l];
+            float[] w = floatWeights[l - 1];
+            int inputs = layerSizes[l - 1];
+
+            for (int j = 0; j < layerSizes[l]; j++) {
+                int offset = j * (inputs + 1);
+                int base = j * count;
+                float bias = w[offset + inputs];
+                for (int r = 0; r < count; r++) {
+                    out[base + r] = bias;
+                }
+                for (int i = 0; i < inputs; i++) {
+                    float weight = w[offset + i];
+                    int column = i * count;
+                    for (int r = 0; r < count; r++) {
+                        out[base + r] += weight * in[column + r];
+                    }
+                }
+                for (int r = 0; r < count; r++) {
+                    out[base + r] = sigmoid(out[base + r]);
+                }
+            }
+        }
+    }
+
+    private void forwardInt8(int count, Workspace workspace) {
+        int[] acc = workspace.accumulator;
+        int last = layerSizes.length - 1;
+        for (int l = 1; l < layerSizes.length; l++) {
+            int[] in = workspace.ints[l - 1];
+            byte[] w = byteWeights[l - 1];
+            int inputs = layerSizes[l - 1];
+
+            for (int j = 0; j < layerSizes[l]; j++) {
+                int offset = j * inputs;
+                int base = j * count;
+                for (int r = 0; r < count; r++) {
+                    acc[r] = 0;
+                }
+                for (int i = 0; i < inputs; i++) {
+                    int weight = w[offset + i];
+                    int column = i * count;
+                    for (int r = 0; r < count; r++) {
+                        acc[r] += weight * in[column + r];
+                    }
+                }
+
+                float scale = weightScales[l - 1][j];
+                float bias = biases[l - 1][j];
+                if (l == last) {
+                    float[] out = workspace.floats[l];
+                    for (int r = 0; r < count; r++) {
+                        out[base + r] = sigmoid(acc[r] * scale + bias);
+                    }
+                } else {
+                    int[] out = workspace.ints[l];
+                    for (int r = 0; r < count; r++) {
+                        out[base + r] = (int) (sigmoid(acc[r] * scale + bias) * ACTIVATION_MAX + 0.5f); // sigmoide >= 0
+                    }
+                }
+            }
+        }
+    }
+
+    private static int quantize(float value, int max) {
+        int q = Math.round(value);
+        return q > max ? max : q < -max ? -max : q;
+    }
+
+    /**
+     * Sigmoide por tabela com interpolação linear.
+     */
+    private float sigmoid(float net) {
+        float x = (slope * net + SIGMOID_RANGE) * SIGMOID_STEPS_PER_UNIT;
+        if (x <= 0) return 0.0f;
+        if (x >= SIGMOID_STEPS) return 1.0f;
+        int index = (int) x;
+        float fraction = x - index;
+        return SIGMOID_TABLE[index] + fraction * (SIGMOID_TABLE[index + 1] - SIGMOID_TABLE[index]);
+    }
+
+    /**
+     * Ativações intermediárias de um bloco, no layout [neurônio][registro].
+     * Não é thread-safe: cada thread deve ter o seu.
+     */
+    public static class Workspace {
+        final int blockSize;
+        final float[][] floats;
+        final int[][] ints;
+        final int[] accumulator;
+        final double[] single;
+
+        Workspace(int[] layerSizes, int blockSize) {
+            this.blockSize = blockSize;
+            this.floats = new float[layerSizes.length][];
+            this.ints = new int[layerSizes.length][];
+            for (int l = 0; l < layerSizes.length; l++) {
+                floats[l] = new float[layerSizes[l] * blockSize];
+                ints[l] = new int[layerSizes[l] * blockSize];
+            }
+            this.accumulator = new int[blockSize];
+            this.single = new double[layerSizes[layerSizes.length - 1]];
+        }
+    }
+}
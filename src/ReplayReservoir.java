@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Amostra uniforme e de tamanho fixo de todos os registros já usados no
+ * treinamento (amostragem de reservatório, algoritmo R). No treino
+ * incremental ela é misturada às linhas novas para que a rede não esqueça
+ * os padrões antigos, sem precisar reler o histórico inteiro.
+ *
+ * Formato do arquivo (little-endian):
+ *   int    MAGIC
+ *   int    FORMAT_VERSION
+ *   long   impressão digital da codificação
+ *   long   registros já oferecidos à amostra
+ *   int    registros na amostra
+ *   double registros[amostra][16 entradas + rótulo]
+ */
+public class ReplayReservoir {
+
+    private static final int MAGIC = 0x424E4B52; // "BNKR"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4;
+    private static final int WIDTH = BankMarketingPerceptron.INPUT_SIZE;
+
+    private final int capacity;
+    private final ArrayDataset rows;
+    private long seen;
+
+    public ReplayReservoir(int capacity) {
+        this.capacity = capacity;
+        this.rows = new ArrayDataset(capacity);
+    }
+
+    /**
+     * Lê a amostra gravada; retorna uma amostra vazia se o arquivo não existir
+     * ou tiver sido gerado com outra codificação. Se a capacidade for menor
+     * que a gravada, só os primeiros registros são mantidos.
+     */
+    public static ReplayReservoir load(String filename, int capacity) throws IOException {
+        ReplayReservoir reservoir = new ReplayReservoir(capacity);
+        Path path = Paths.get(filename);
+        if (!Files.exists(path)) {
+            return reservoir;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_SIZE
+                || buffer.getInt() != MAGIC
+                || buffer.getInt() != FORMAT_VERSION
+                || buffer.getLong() != BankFeatureEncoder.fingerprint()) {
+            return reservoir;
+        }
+        long seen = buffer.getLong();
+        int count = buffer.getInt();
+        if (buffer.remaining() != count * (WIDTH + 1) * 8) {
+            throw new IOException("Amostra de replay truncada: " + filename);
+        }
+
+        double[] row = new double[WIDTH];
+        for (int r = 0; r < count; r++) {
+            for (int i = 0; i < WIDTH; i++) {
+                row[i] = buffer.getDouble();
+            }
+            double label = buffer.getDouble();
+            if (r < capacity) {
+                reservoir.rows.add(row, label);
+            }
+        }
+        reservoir.seen = seen;
+        return reservoir;
+    }
+
+    /**
+     * Oferece um registro à amostra: entra com probabilidade capacidade / vistos.
+     */
+    public void offer(double[] inputs, double label, Random random) {
+        seen++;
+        if (rows.size() < capacity) {
+            rows.add(inputs, label);
+        } else {
+            long slot = (long) (random.nextDouble() * seen);
+            if (slot < capacity) {
+                rows.set((int) slot, inputs, label);
+            }
+        }
+    }
+
+    public void offerAll(EncodedDataset dataset, Random random) {
+        double[] row = new double[WIDTH];
+        for (int r = 0; r < dataset.size(); r++) {
+            dataset.readInputs(r, row);
+            offer(row, dataset.label(r), random);
+        }
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public long getSeen() {
+        return seen;
+    }
+
+    public EncodedDataset getRows() {
+        return rows;
+    }
+
+    public void save(String filename) throws IOException {
+        int count = rows.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + count * (WIDTH + 1) * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putLong(BankFeatureEncoder.fingerprint());
+        buffer.putLong(seen);
+        buffer.putInt(count);
+        double[] row = new double[WIDTH];
+        for (int r = 0; r < count; r++) {
+            rows.readInputs(r, row);
+            for (double value : row) {
+                buffer.putDouble(value);
+            }
+            buffer.putDouble(rows.label(r));
+        }
+        buffer.flip();
+
+        AtomicFiles.write(Paths.get(filename), buffer);
+    }
+}
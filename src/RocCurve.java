@@ -0,0 +1,151 @@
+import java.util.Arrays;
+
+/**
+ * Curvas ROC e precisão-revocação a partir das probabilidades agrupadas em
+ * faixas finas, o que mantém a memória fixa e permite somar partições;
+ * cada faixa é um ponto de corte possível. As faixas têm largura constante
+ * em logit(p), pois as saídas da sigmoide se concentram perto de 0 e de 1,
+ * onde faixas lineares juntariam quase todos os registros.
+ */
+public class RocCurve implements PredictionAccumulator {
+
+    public static final int DEFAULT_BINS = 4000;
+
+    private static final double LOGIT_LIMIT = 20.0; // faixas cobrem logit em [-20, 20]
+
+    private final long[] positives;
+    private final long[] negatives;
+
+    public RocCurve() {
+        this(DEFAULT_BINS);
+    }
+
+    public RocCurve(int bins) {
+        positives = new long[bins];
+        negatives = new long[bins];
+    }
+
+    @Override
+    public void accept(double probability, boolean actualPositive) {
+        int bin = bin(probability, positives.length);
+        if (actualPositive) {
+            positives[bin]++;
+        } else {
+            negatives[bin]++;
+        }
+    }
+
+    @Override
+    public RocCurve newEmpty() {
+        return new RocCurve(positives.length);
+    }
+
+    @Override
+    public void merge(PredictionAccumulator other) {
+        RocCurve curve = (RocCurve) other;
+        for (int i = 0; i < positives.length; i++) {
+            positives[i] += curve.positives[i];
+            negatives[i] += curve.negatives[i];
+        }
+    }
+
+    /**
+     * Pontos (taxa de falsos positivos, revocação) do corte mais alto ao mais
+     * baixo, começando em (0, 0) e terminando em (1, 1).
+     */
+    public double[][] rocPoints() {
+        long totalPositives = sum(positives);
+        long totalNegatives = sum(negatives);
+        double[][] points = new double[positives.length + 1][];
+        points[0] = new double[] {0, 0};
+        long tp = 0;
+        long fp = 0;
+        for (int i = positives.length - 1, p = 1; i >= 0; i--, p++) {
+            tp += positives[i];
+            fp += negatives[i];
+            points[p] = new double[] {ratio(fp, totalNegatives), ratio(tp, totalPositives)};
+        }
+        return points;
+    }
+
+    /**
+     * Pontos (revocação, precisão) do corte mais alto ao mais baixo; faixas
+     * sem registros não geram ponto.
+     */
+    public double[][] precisionRecallPoints() {
+        long totalPositives = sum(positives);
+        double[][] points = new double[positives.length][];
+        int count = 0;
+        long tp = 0;
+        long fp = 0;
+        for (int i = positives.length - 1; i >= 0; i--) {
+            if (positives[i] + negatives[i] == 0) {
+                continue;
+            }
+            tp += positives[i];
+            fp += negatives[i];
+            points[count++] = new double[] {ratio(tp, totalPositives), ratio(tp, tp + fp)};
+        }
+        return Arrays.copyOf(points, count);
+    }
+
+    /**
+     * Área sob a curva ROC (regra do trapézio; empates dentro de uma faixa
+     * contam meio, como no AUC por postos).
+     */
+    public double auc() {
+        double[][] points = rocPoints();
+        double area = 0;
+        for (int i = 1; i < points.length; i++) {
+            area += (points[i][0] - points[i - 1][0]) * (points[i][1] + points[i - 1][1]) / 2;
+        }
+        return area;
+    }
+
+    /**
+     * Precisão média: soma das precisões ponderadas pelo ganho de revocação.
+     */
+    public double averagePrecision() {
+        double previousRecall = 0;
+        double area = 0;
+        for (double[] point : precisionRecallPoints()) {
+            area += (point[0] - previousRecall) * point[1];
+            previousRecall = point[0];
+        }
+        return area;
+    }
+
+    /**
+     * Faixa de uma probabilidade; também usada pelo modo em faixas do {@link ThresholdSweep}.
+     */
+    static int bin(double probability, int bins) {
+        double logit = Math.log(probability / (1.0 - probability));
+        if (!(logit > -LOGIT_LIMIT)) {
+            return 0; // inclui p = 0 e NaN
+        }
+        return Math.min((int) ((logit + LOGIT_LIMIT) / (2 * LOGIT_LIMIT) * bins), bins - 1);
+    }
+
+    /**
+     * Menor probabilidade da faixa (0 para a primeira, que inclui tudo abaixo do limite).
+     */
+    static double lowerEdge(int bin, int bins) {
+        if (bin == 0) {
+            return 0;
+        }
+        double logit = -LOGIT_LIMIT + 2 * LOGIT_LIMIT * bin / bins;
+        return 1.0 / (1.0 + Math.exp(-logit));
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator > 0 ? (double) numerator / denominator : 0;
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.neuroph.core.NeuralNetwork;
+
+/**
+ * Confere o {@link CompiledScorer} contra o Neuroph, compara a vazão dos
+ * dois caminhos de inferência e mede a escalabilidade do
+ * {@link ParallelEvaluator} com 1, 2, 4, ... workers.
+ * Executar: java -cp "lib\*;bin" ScorerBenchmark [rede.nnet] [arquivo.csv]
+ */
+public class ScorerBenchmark {
+
+    private static final int REPETITIONS = 20;
+
+    private static final int PARALLEL_ROWS = 2000000; // registros na medição de escalabilidade
+
+    private static double checksum; // evita que o JIT elimine o trabalho
+
+    public static void main(String[] args) throws IOException {
+        String networkFile = args.length > 0 ? args[0] : "bankPredictionNetwork.nnet";
+        String dataFile = args.length > 1 ? args[1] : "bank_assets/bank.csv";
+
+        NeuralNetwork<?> network = NeuralNetwork.createFromFile(networkFile);
+        CompiledScorer scorer = CompiledScorer.compile(network);
+
+        EncodedDataset dataset = BankDataCache.open(dataFile);
+        int rows = dataset.size();
+        double[] inputs = new double[rows * BankMarketingPerceptron.INPUT_SIZE];
+        double[] row = new double[BankMarketingPerceptron.INPUT_SIZE];
+        for (int r = 0; r < rows; r++) {
+            dataset.readInputs(r, row);
+            System.arraycopy(row, 0, inputs, r * row.length, row.length);
+        }
+
+        System.out.println("=== BENCHMARK DE INFERÊNCIA ===");
+        System.out.println("Rede: " + networkFile + "  Registros: " + rows);
+
+        // Conferir as saídas
+        double[] compiled = new double[rows];
+        scorer.score(inputs, rows, compiled, scorer.newWorkspace());
+        double maxDifference = 0;
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(inputs, r * row.length, row, 0, row.length);
+            network.setInput(row);
+            network.calculate();
+            maxDifference = Math.max(maxDifference, Math.abs(network.getOutput()[0] - compiled[r]));
+        }
+        System.out.println("Diferença máxima para o Neuroph: " + maxDifference
+            + (maxDifference <= CompiledScorer.TOLERANCE ? " (dentro da tolerância " : " (ACIMA da tolerância ")
+            + CompiledScorer.TOLERANCE + ")");
+
+        for (int i = 0; i < 5; i++) { // Aquecimento do JIT
+            runNeuroph(network, inputs, rows, row);
+            runCompiledSingle(scorer, inputs, rows, row);
+            runCompiledBatch(scorer, inputs, rows, compiled);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) runNeuroph(network, inputs, rows, row);
+        report("Neuroph (setInput/calculate)", rows, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) runCompiledSingle(scorer, inputs, rows, row);
+        report("Compilado, um registro      ", rows, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) runCompiledBatch(scorer, inputs, rows, compiled);
+        report("Compilado, lotes de " + CompiledScorer.DEFAULT_BLOCK_SIZE + "     ", rows, System.nanoTime() - start);
+
+        measureParallelScaling(scorer, dataset);
+    }
+
+    /**
+     * Avalia o conjunto repetido até PARALLEL_ROWS registros com pools de
+     * tamanhos crescentes e confere que a matriz de confusão não muda.
+     */
+    private static void measureParallelScaling(CompiledScorer scorer, EncodedDataset dataset) {
+        EncodedDataset repeated = repeat(dataset, PARALLEL_ROWS);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("\nAvaliação paralela (" + PARALLEL_ROWS + " registros, " + cores + " núcleos):");
+        ConfusionMatrix reference = null;
+        double baseline = 0;
+        int workers = 0;
+        while (workers < cores) {
+            workers = Math.min(workers == 0 ? 1 : workers * 2, cores);
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                ParallelEvaluator.evaluate(scorer, repeated, pool); // Aquecimento
+                long start = System.nanoTime();
+                ConfusionMatrix matrix = ParallelEvaluator.evaluate(scorer, repeated, pool);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                if (reference == null) {
+                    reference = matrix;
+                    baseline = seconds;
+                } else if (matrix.getTruePositives() != reference.getTruePositives()
+                        || matrix.getFalsePositives() != reference.getFalsePositives()
+                        || matrix.getTrueNegatives() != reference.getTrueNegatives()
+                        || matrix.getFalseNegatives() != reference.getFalseNegatives()) {
+                    throw new IllegalStateException("Matriz de confusão divergente com " + workers + " workers");
+                }
+                System.out.println(String.format("%3d workers: %12.0f registros/s  speedup %.2fx",
+                    workers, PARALLEL_ROWS / seconds, baseline / seconds));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static EncodedDataset repeat(final EncodedDataset dataset, final int rows) {
+        return new EncodedDataset() {
+            @Override
+            public int size() {
+                return rows;
+            }
+
+            @Override
+            public void readInputs(int row, double[] dst) {
+                dataset.readInputs(row % dataset.size(), dst);
+            }
+
+            @Override
+            public double label(int row) {
+                return dataset.label(row % dataset.size());
+            }
+        };
+    }
+
+    private static void report(String name, int rows, long elapsed) {
+        double seconds = elapsed / 1e9;
+        System.out.println(name + ": " + String.format("%12.0f", rows * (double) REPETITIONS / seconds) + " registros/s");
+    }
+
+    private static void runNeuroph(NeuralNetwork<?> network, double[] inputs, int rows, double[] row) {
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(inputs, r * row.length, row, 0, row.length);
+            network.setInput(row);
+            network.calculate();
+            checksum += network.getOutput()[0];
+        }
+    }
+
+    private static void runCompiledSingle(CompiledScorer scorer, double[] inputs, int rows, double[] row) {
+        CompiledScorer.Workspace workspace = scorer.newWorkspace(1);
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(inputs, r * row.length, row, 0, row.length);
+            checksum += scorer.score(row, workspace);
+        }
+    }
+
+    private static void runCompiledBatch(CompiledScorer scorer, double[] inputs, int rows, double[] outputs) {
+        scorer.score(inputs, rows, outputs, scorer.newWorkspace());
+        checksum += outputs[0];
+    }
+}
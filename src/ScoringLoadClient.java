@@ -0,0 +1,135 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gerador de carga para o {@link ScoringServer}.
+ * Cada cliente envia, em laço fechado, um registro sorteado do CSV e mede
+ * a latência de ida e volta. Sem URL, sobe um servidor local numa porta
+ * livre com o modelo salvo, para testes sem rede.
+ * Executar: java -cp "lib\*;bin" ScoringLoadClient [url|local] [clientes] [segundos] [csv]
+ */
+public class ScoringLoadClient {
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "local";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String csv = args.length > 3 ? args[3] : "bank_assets/bank.csv";
+
+        ScoringServer local = null;
+        if ("local".equals(target)) {
+            CompiledScorer scorer = ModelSnapshot.loadScorer("bankPredictionNetwork.nnet");
+            local = new ScoringServer(scorer, 0);
+            local.start();
+            target = "http://localhost:" + local.getPort() + "/score";
+        }
+
+        final List<byte[]> records = loadRecords(csv);
+        final URL url = new URL(target);
+        final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        final LatencyRecorder latency = new LatencyRecorder();
+        final LongAdder errors = new LongAdder();
+
+        System.out.println("=== CARGA: " + clients + " clientes, " + seconds + " s, " + target + " ===");
+
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            final Random random = new Random(c);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    byte[] record = records.get(random.nextInt(records.size()));
+                    long start = System.nanoTime();
+                    try {
+                        post(url, record);
+                        latency.recordSince(start);
+                    } catch (IOException e) {
+                        errors.increment();
+                    }
+                }
+            }, "load-client-" + c);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long completed = latency.getCount();
+        System.out.println(String.format("Pedidos: %d (%.0f/s), erros: %d",
+            completed, completed / (double) seconds, errors.sum()));
+        System.out.println(String.format("Latência no cliente: média %.0f µs, p50 %d µs, p99 %d µs, p99.9 %d µs",
+            latency.getMeanMicros(), latency.percentileMicros(50),
+            latency.percentileMicros(99), latency.percentileMicros(99.9)));
+
+        System.out.println("--- Métricas do servidor ---");
+        System.out.print(get(new URL(url, "/metrics")));
+
+        if (local != null) {
+            local.stop();
+        }
+    }
+
+    /**
+     * Linhas do CSV (sem o cabeçalho), cada uma já em bytes.
+     */
+    private static List<byte[]> loadRecords(String csv) throws IOException {
+        List<byte[]> records = new ArrayList<>();
+        boolean header = true;
+        for (String line : Files.readAllLines(Paths.get(csv), StandardCharsets.UTF_8)) {
+            if (header) {
+                header = false;
+            } else if (!line.isEmpty()) {
+                records.add(line.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return records;
+    }
+
+    private static String post(URL url, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body);
+        }
+        if (connection.getResponseCode() != 200) {
+            drain(connection.getErrorStream());
+            throw new IOException("HTTP " + connection.getResponseCode());
+        }
+        return drain(connection.getInputStream());
+    }
+
+    private static String get(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        return drain(connection.getInputStream());
+    }
+
+    /**
+     * Lê a resposta até o fim, para que a conexão volte ao pool do keep-alive.
+     */
+    private static String drain(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int n;
+            while ((n = stream.read(chunk)) > 0) {
+                out.write(chunk, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Servidor HTTP de inferência do modelo treinado.
+ * Carrega a rede uma única vez, compila-a ({@link CompiledScorer}) e agrupa
+ * os pedidos concorrentes em micro-lotes ({@link MicroBatchScorer}).
+ * Registros já calculados são respondidos pelo {@link PredictionCache}
+ * (chave: entradas codificadas + versão do modelo); só as faltas vão para
+ * o micro-lote. O arquivo do modelo é verificado a cada 2 s: quando muda,
+ * o modelo é recarregado sem derrubar pedidos e o cache é invalidado.
+ *
+ * Endpoints:
+ * - POST /score: corpo com um ou mais registros no formato do CSV (campos
+ *   separados por ';', com ou sem a coluna y, cabeçalho opcional); a
+ *   resposta traz uma probabilidade por linha, na mesma ordem.
+ * - GET /metrics: pedidos, lotes, latências p50/p99/p999 em microssegundos,
+ *   recargas do modelo e acertos, faltas e descartes do cache.
+ * - GET /health: "ok" quando o modelo está carregado.
+ *
+ * Cada pedido é atendido por uma thread de um pool que cresce sob demanda
+ * (thread por pedido); a espera pelo lote não ocupa o processador.
+ * Executar: java -cp "lib\*;bin" ScoringServer [porta] [modelo .model ou .nnet] [capacidade do cache (0 = sem cache)] [TTL em s]
+ */
+public class ScoringServer {
+
+    private static final int MAX_BATCH_ROWS = 256;
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int DEFAULT_CACHE_CAPACITY = 100000;
+    private static final int DEFAULT_CACHE_TTL_SECONDS = 300;
+    private static final long MODEL_CHECK_MILLIS = 2000;
+
+    static {
+        // Sem TCP_NODELAY o cabeçalho e o corpo da resposta saem em pacotes
+        // separados e o ACK atrasado do cliente soma ~40 ms a cada pedido
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MicroBatchScorer batcher;
+    private final PredictionCache cache; // null: sem cache
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private volatile long modelVersion;
+    private ScheduledExecutorService watcher;
+
+    // Um leitor por thread: o BankCsvReader reaproveita buffers e não é thread-safe
+    private final ThreadLocal<BankCsvReader> readers = ThreadLocal.withInitial(BankCsvReader::new);
+
+    public ScoringServer(CompiledScorer scorer, int port) throws IOException {
+        this(scorer, port, null);
+    }
+
+    public ScoringServer(CompiledScorer scorer, int port, PredictionCache cache) throws IOException {
+        checkModel(scorer);
+        this.batcher = new MicroBatchScorer(scorer, MAX_BATCH_ROWS, QUEUE_CAPACITY);
+        this.cache = cache;
+        this.modelVersion = PredictionCache.modelVersion(scorer);
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/score", this::handleScore);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/health", exchange -> respond(exchange, 200, "ok\n"));
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String model = args.length > 1 ? args[1] : "bankPredictionNetwork.nnet";
+        int cacheCapacity = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CACHE_CAPACITY;
+        int cacheTtl = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_CACHE_TTL_SECONDS;
+
+        long start = System.nanoTime();
+        CompiledScorer scorer = ModelSnapshot.loadScorer(model);
+        PredictionCache cache = cacheCapacity > 0 ? new PredictionCache(cacheCapacity, cacheTtl, TimeUnit.SECONDS) : null;
+        final ScoringServer server = new ScoringServer(scorer, port, cache);
+        server.start();
+        server.watch(model);
+
+        System.out.println(String.format("Modelo %s carregado em %.1f ms; servindo em http://localhost:%d/score",
+            model, (System.nanoTime() - start) / 1e6, server.getPort()));
+        System.out.println(cache != null
+            ? "Cache de " + cacheCapacity + " previsões, TTL " + cacheTtl + " s" : "Sem cache de previsões");
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+    }
+
+    private static void checkModel(CompiledScorer scorer) {
+        if (scorer.getInputCount() != BankMarketingPerceptron.INPUT_SIZE || scorer.getOutputCount() != 1) {
+            throw new IllegalArgumentException("Modelo com " + scorer.getInputCount() + " entradas e "
+                + scorer.getOutputCount() + " saídas; esperado " + BankMarketingPerceptron.INPUT_SIZE + " e 1");
+        }
+    }
+
+    /**
+     * Troca o modelo: os próximos lotes usam o scorer novo e o cache é invalidado.
+     */
+    public void reload(CompiledScorer scorer) {
+        checkModel(scorer);
+        batcher.setScorer(scorer);
+        modelVersion = PredictionCache.modelVersion(scorer);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        reloads.increment();
+    }
+
+    /**
+     * Recarrega o modelo sempre que a data de modificação do arquivo mudar.
+     * Um arquivo inválido (por exemplo, ainda sendo gravado) é tentado de novo
+     * na verificação seguinte.
+     */
+    public synchronized void watch(final String modelFile) throws IOException {
+        final FileTime[] loaded = {Files.getLastModifiedTime(Paths.get(modelFile))};
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "model-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(() -> {
+            try {
+                FileTime modified = Files.getLastModifiedTime(Paths.get(modelFile));
+                if (!modified.equals(loaded[0])) {
+                    reload(ModelSnapshot.loadScorer(modelFile));
+                    loaded[0] = modified;
+                    System.out.println("Modelo " + modelFile + " recarregado; cache invalidado");
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Falha ao recarregar " + modelFile + ": " + e.getMessage());
+            }
+        }, MODEL_CHECK_MILLIS, MODEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+        server.stop(0);
+        batcher.close();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public LatencyRecorder getLatency() {
+        return latency;
+    }
+
+    public PredictionCache getCache() {
+        return cache;
+    }
+
+    private void handleScore(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        requests.increment();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                failures.increment();
+                respond(exchange, 405, "Use POST\n");
+                return;
+            }
+
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                failures.increment();
+                respond(exchange, 413, "Corpo maior que " + MAX_BODY_BYTES + " bytes\n");
+                return;
+            }
+
+            double[] inputs;
+            try {
+                inputs = encode(body);
+            } catch (IllegalArgumentException e) {
+                failures.increment();
+                respond(exchange, 400, e.getMessage() + "\n");
+                return;
+            }
+
+            int rows = inputs.length / BankMarketingPerceptron.INPUT_SIZE;
+            double[] probabilities = rows > 0 ? score(inputs, rows) : new double[0];
+
+            StringBuilder response = new StringBuilder(rows * 20);
+            for (double probability : probabilities) {
+                response.append(probability).append('\n');
+            }
+            respond(exchange, 200, response.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.increment();
+            respond(exchange, 503, "Interrompido\n");
+        } catch (IllegalStateException e) {
+            failures.increment();
+            respond(exchange, 503, e.getMessage() + "\n");
+        } finally {
+            latency.recordSince(start);
+        }
+    }
+
+    /**
+     * Probabilidades dos registros: do cache quando possível; as faltas são
+     * calculadas juntas num micro-lote e guardadas no cache.
+     */
+    private double[] score(double[] inputs, int rows) throws InterruptedException {
+        if (cache == null) {
+            return batcher.score(inputs, rows);
+        }
+        long version = modelVersion; // um modelo novo invalida o cache; resultados antigos ficam com a versão antiga
+        int width = BankMarketingPerceptron.INPUT_SIZE;
+        double[] probabilities = new double[rows];
+        int[] missing = new int[rows];
+        int missingCount = 0;
+        for (int r = 0; r < rows; r++) {
+            probabilities[r] = cache.get(inputs, r * width, version);
+            if (Double.isNaN(probabilities[r])) {
+                missing[missingCount++] = r;
+            }
+        }
+        if (missingCount == 0) {
+            return probabilities;
+        }
+
+        double[] missingInputs = inputs;
+        if (missingCount < rows) {
+            missingInputs = new double[missingCount * width];
+            for (int i = 0; i < missingCount; i++) {
+                System.arraycopy(inputs, missing[i] * width, missingInputs, i * width, width);
+            }
+        }
+        double[] computed = batcher.score(missingInputs, missingCount);
+        for (int i = 0; i < missingCount; i++) {
+            probabilities[missing[i]] = computed[i];
+            cache.put(inputs, missing[i] * width, version, computed[i]);
+        }
+        return probabilities;
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        StringBuilder metrics = new StringBuilder(String.format(Locale.ROOT,
+            "requests %d%nfailures %d%nrows %d%nbatches %d%nrows_per_batch %.2f%n"
+            + "latency_mean_us %.1f%nlatency_p50_us %d%nlatency_p99_us %d%nlatency_p999_us %d%n"
+            + "model_version %016x%nmodel_reloads %d%n",
+            requests.sum(), failures.sum(), batcher.getRowCount(), batcher.getBatchCount(),
+            batcher.getAverageBatchRows(), latency.getMeanMicros(), latency.percentileMicros(50),
+            latency.percentileMicros(99), latency.percentileMicros(99.9), modelVersion, reloads.sum()));
+        if (cache != null) {
+            metrics.append(String.format(Locale.ROOT,
+                "cache_size %d%ncache_hits %d%ncache_misses %d%ncache_hit_rate %.4f%n"
+                + "cache_evictions %d%ncache_expirations %d%ncache_invalidations %d%n",
+                cache.size(), cache.getHits(), cache.getMisses(), cache.hitRate(),
+                cache.getEvictions(), cache.getExpirations(), cache.getInvalidations()));
+        }
+        respond(exchange, 200, metrics.toString());
+    }
+
+    /**
+     * Codifica cada linha não vazia do corpo (exceto um cabeçalho) nas 16 entradas.
+     */
+    private double[] encode(byte[] body) {
+        BankCsvReader reader = readers.get();
+        int width = BankMarketingPerceptron.INPUT_SIZE;
+        double[] row = new double[width];
+        double[] inputs = new double[width * 4];
+        int rows = 0;
+        int lineNumber = 0;
+
+        int lineStart = 0;
+        for (int i = 0; i <= body.length; i++) {
+            if (i < body.length && body[i] != '\n') {
+                continue;
+            }
+            int end = i > lineStart && body[i - 1] == '\r' ? i - 1 : i;
+            int start = lineStart;
+            lineStart = i + 1;
+            lineNumber++;
+            if (end == start || isHeader(body, start, end)) {
+                continue;
+            }
+
+            boolean valid;
+            try {
+                valid = reader.encodeInputs(body, start, end, row);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Registro " + lineNumber + ": valor numérico inválido", e);
+            }
+            if (!valid) {
+                throw new IllegalArgumentException("Registro " + lineNumber + ": esperado "
+                    + width + " campos separados por ';'");
+            }
+
+            if ((rows + 1) * width > inputs.length) {
+                inputs = Arrays.copyOf(inputs, inputs.length * 2);
+            }
+            System.arraycopy(row, 0, inputs, rows * width, width);
+            rows++;
+        }
+        return Arrays.copyOf(inputs, rows * width);
+    }
+
+    private static boolean isHeader(byte[] data, int start, int end) {
+        while (start < end && data[start] == '"') {
+            start++;
+        }
+        return end - start >= 3 && data[start] == 'a' && data[start + 1] == 'g' && data[start + 2] == 'e';
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = in.read(chunk)) > 0) {
+            if (body.size() + n > MAX_BODY_BYTES) {
+                return null;
+            }
+            body.write(chunk, 0, n);
+        }
+        return body.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
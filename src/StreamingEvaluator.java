@@ -0,0 +1,501 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Avaliação fora da memória: o CSV é lido, codificado e calculado em
+ * blocos, sem nunca carregar o arquivo inteiro. Estágios ligados por filas
+ * limitadas, para que leitura e cálculo se sobreponham:
+ *
+ *   leitura (uma thread; blocos de bytes terminados em '\n')
+ *     -> codificação (uma thread; blocos de registros codificados)
+ *     -> inferência (N workers; acumuladores)
+ *     -> gravação (uma thread, só com arquivo de saída)
+ *
+ * Cada worker de inferência usa o seu próprio Workspace e cópias vazias dos
+ * {@link PredictionAccumulator}s, somadas ao final, como no
+ * {@link ParallelEvaluator}. Os buffers de bytes e de registros vêm de pools
+ * de tamanho fixo e voltam a eles depois de usados, de modo que a memória
+ * ocupada não depende do tamanho do arquivo (desde que os acumuladores
+ * também não dependam). Registros sem a coluna y são calculados, mas não
+ * entram nos acumuladores.
+ *
+ * O arquivo de saída tem uma linha "linha;probabilidade" por registro, com
+ * o número da linha no CSV, na mesma ordem do arquivo de entrada: a
+ * gravação reordena os blocos que os workers terminam fora de ordem.
+ * Executar: java -cp "lib\*;bin" StreamingEvaluator arquivo.csv [modelo] [saída]
+ */
+public class StreamingEvaluator {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int ROWS_PER_BLOCK = 4096;
+
+    private final CompiledScorer scorer;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int queueCapacity = 4;
+    private int scoringThreads = Runtime.getRuntime().availableProcessors();
+    private String output;
+
+    private long bytesRead;
+    private long rowsScored;
+    private long rowsLabeled;
+    private long rowsSkipped;
+    private long readNanos;
+    private long encodeNanos;
+    private long scoreNanos;
+
+    public StreamingEvaluator(CompiledScorer scorer) {
+        this.scorer = scorer;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Uso: StreamingEvaluator arquivo.csv [modelo] [saída]");
+            return;
+        }
+        String model = args.length > 1 ? args[1] : "bankPredictionNetwork.nnet";
+
+        StreamingEvaluator evaluator = new StreamingEvaluator(ModelSnapshot.loadScorer(model));
+        if (args.length > 2) {
+            evaluator.setOutput(args[2]);
+        }
+
+        ConfusionMatrix matrix = new ConfusionMatrix();
+        RocCurve roc = new RocCurve();
+        long start = System.nanoTime();
+        evaluator.evaluate(args[0], matrix, roc);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("=== AVALIAÇÃO EM STREAMING ===");
+        System.out.println(String.format("%d registros (%d com rótulo, %d ignorados) em %.2f s: %.0f registros/s, %.1f MB/s",
+            evaluator.getRowsScored(), evaluator.getRowsLabeled(), evaluator.getRowsSkipped(), seconds,
+            evaluator.getRowsScored() / seconds, evaluator.getBytesRead() / seconds / (1024 * 1024)));
+        System.out.println(String.format("Tempo ocupado por estágio: leitura %.0f ms, codificação %.0f ms, inferência %.0f ms",
+            evaluator.getReadNanos() / 1e6, evaluator.getEncodeNanos() / 1e6, evaluator.getScoreNanos() / 1e6));
+        if (matrix.getTotal() > 0) {
+            System.out.println(String.format("Acurácia %.4f  Precisão %.4f  Revocação %.4f  F1 %.4f  AUC %.4f",
+                matrix.accuracy(), matrix.precision(), matrix.recall(), matrix.f1Score(), roc.auc()));
+        }
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println(String.format("Heap em uso ao final: %.1f MB",
+            (runtime.totalMemory() - runtime.freeMemory()) / (1024.0 * 1024.0)));
+    }
+
+    /**
+     * Tamanho dos blocos de leitura, em bytes.
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Blocos em espera entre dois estágios.
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Workers do estágio de inferência.
+     */
+    public void setScoringThreads(int scoringThreads) {
+        this.scoringThreads = scoringThreads;
+    }
+
+    /**
+     * Arquivo para as probabilidades de cada registro (null = não gravar).
+     */
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getRowsScored() {
+        return rowsScored;
+    }
+
+    /**
+     * Registros com a coluna y, os únicos que entram nos acumuladores.
+     */
+    public long getRowsLabeled() {
+        return rowsLabeled;
+    }
+
+    /**
+     * Linhas ignoradas por terem menos de 16 colunas.
+     */
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Tempo ocupado do estágio de leitura (sem a espera nas filas), em nanossegundos.
+     */
+    public long getReadNanos() {
+        return readNanos;
+    }
+
+    /**
+     * Tempo ocupado do estágio de codificação (separação dos campos e codificação).
+     */
+    public long getEncodeNanos() {
+        return encodeNanos;
+    }
+
+    /**
+     * Tempo ocupado do estágio de inferência, somado entre os workers,
+     * incluindo os acumuladores e o arquivo de saída.
+     */
+    public long getScoreNanos() {
+        return scoreNanos;
+    }
+
+    /**
+     * Processa o arquivo inteiro e soma as previsões nos acumuladores.
+     */
+    public void evaluate(final String filename, final PredictionAccumulator... accumulators) throws IOException {
+        bytesRead = 0;
+        rowsScored = 0;
+        rowsLabeled = 0;
+        rowsSkipped = 0;
+        readNanos = 0;
+        encodeNanos = 0;
+        scoreNanos = 0;
+
+        final int workers = Math.max(1, scoringThreads);
+        final boolean writing = output != null;
+
+        // Pools: um buffer em cada posição das filas, um em uso por cada estágio e um de folga
+        int chunkPool = queueCapacity + 3;
+        int blockPool = queueCapacity + 2 + workers + (writing ? queueCapacity + 1 : 0);
+        final BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(chunkPool);
+        final BlockingQueue<Block> freeBlocks = new ArrayBlockingQueue<>(blockPool);
+        for (int i = 0; i < chunkPool; i++) {
+            freeChunks.add(new Chunk(chunkSize));
+        }
+        for (int i = 0; i < blockPool; i++) {
+            freeBlocks.add(new Block(scorer.getInputCount(), scorer.getOutputCount()));
+        }
+        final BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Block> blocks = new ArrayBlockingQueue<>(queueCapacity);
+        final BlockingQueue<Block> scored = writing ? new ArrayBlockingQueue<Block>(blockPool + workers) : null;
+
+        // Cada worker soma nas suas próprias cópias dos acumuladores e nos seus contadores
+        final PredictionAccumulator[][] partials = new PredictionAccumulator[workers][accumulators.length];
+        final long[][] counters = new long[workers][];
+        for (int w = 0; w < workers; w++) {
+            for (int i = 0; i < accumulators.length; i++) {
+                partials[w][i] = accumulators[i].newEmpty();
+            }
+        }
+
+        int stageCount = 2 + workers + (writing ? 1 : 0);
+        ExecutorService executor = Executors.newFixedThreadPool(stageCount);
+        ExecutorCompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+        stages.submit(() -> read(filename, freeChunks, chunks));
+        stages.submit(() -> encode(chunks, freeChunks, freeBlocks, blocks));
+        for (int w = 0; w < workers; w++) {
+            final int worker = w;
+            stages.submit(() -> {
+                counters[worker] = score(blocks, writing ? scored : freeBlocks, partials[worker]);
+                return null;
+            });
+        }
+        if (writing) {
+            stages.submit(() -> write(scored, freeBlocks, workers));
+        }
+
+        try {
+            for (int i = 0; i < stageCount; i++) {
+                stages.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Avaliação interrompida", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            // Em caso de erro, interromper os estágios que esperam nas filas
+            executor.shutdownNow();
+        }
+
+        for (int w = 0; w < workers; w++) {
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i].merge(partials[w][i]);
+            }
+            rowsScored += counters[w][0];
+            rowsLabeled += counters[w][1];
+            scoreNanos += counters[w][2];
+        }
+    }
+
+    /**
+     * Estágio de leitura: preenche blocos de bytes que terminam sempre num
+     * '\n' (o resto da linha passa para o bloco seguinte).
+     */
+    private Void read(String filename, BlockingQueue<Chunk> free, BlockingQueue<Chunk> out)
+            throws IOException, InterruptedException {
+        byte[] carry = new byte[0];
+        int carryLength = 0;
+        long busy = 0;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            boolean eof = false;
+            while (!eof) {
+                Chunk chunk = free.take();
+                long start = System.nanoTime();
+                if (carryLength * 2 > chunk.data.length) {
+                    chunk.data = new byte[carryLength * 2];
+                }
+                System.arraycopy(carry, 0, chunk.data, 0, carryLength);
+                int filled = carryLength;
+
+                // Ler até encher o bloco ou o arquivo acabar
+                while (filled < chunk.data.length) {
+                    int n = channel.read(ByteBuffer.wrap(chunk.data, filled, chunk.data.length - filled));
+                    if (n < 0) {
+                        eof = true;
+                        break;
+                    }
+                    filled += n;
+                    bytesRead += n;
+                }
+
+                int end = filled;
+                if (!eof) {
+                    while (end > 0 && chunk.data[end - 1] != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        // Linha maior que o bloco: aumentar o bloco e continuar lendo
+                        carry = chunk.data.clone();
+                        carryLength = filled;
+                        busy += System.nanoTime() - start;
+                        free.put(chunk);
+                        continue;
+                    }
+                }
+
+                carryLength = filled - end;
+                if (carry.length < carryLength) {
+                    carry = new byte[Math.max(carryLength, 1024)];
+                }
+                System.arraycopy(chunk.data, end, carry, 0, carryLength);
+
+                chunk.length = end;
+                busy += System.nanoTime() - start;
+                out.put(chunk);
+            }
+        }
+        readNanos = busy;
+        out.put(Chunk.END);
+        return null;
+    }
+
+    /**
+     * Estágio de codificação: separa as linhas de cada bloco de bytes e
+     * codifica os registros em blocos de até ROWS_PER_BLOCK linhas.
+     */
+    private Void encode(BlockingQueue<Chunk> in, BlockingQueue<Chunk> freeChunks,
+                        BlockingQueue<Block> freeBlocks, BlockingQueue<Block> out) throws InterruptedException {
+        BankCsvReader reader = new BankCsvReader();
+        int width = scorer.getInputCount();
+        double[] row = new double[width];
+        long lineNumber = 0;
+        long busy = 0;
+        long sequence = 0;
+        Block block = freeBlocks.take();
+        block.rows = 0;
+        block.sequence = sequence++;
+
+        for (Chunk chunk = in.take(); chunk != Chunk.END; chunk = in.take()) {
+            long chunkStart = System.nanoTime();
+            byte[] data = chunk.data;
+            int lineStart = 0;
+            for (int i = 0; i < chunk.length; i++) {
+                if (data[i] != '\n' && i != chunk.length - 1) {
+                    continue;
+                }
+                int end = data[i] == '\n' ? i : i + 1;
+                int start = lineStart;
+                lineStart = i + 1;
+                lineNumber++;
+                if (end > start && data[end - 1] == '\r') {
+                    end--;
+                }
+                if (lineNumber == 1 || end == start) {
+                    continue; // Pular cabeçalho e linhas vazias
+                }
+
+                double label;
+                try {
+                    label = reader.encodeRecord(data, start, end, row);
+                    if (Double.isNaN(label) && !reader.encodeInputs(data, start, end, row)) {
+                        rowsSkipped++;
+                        continue;
+                    }
+                } catch (NumberFormatException e) {
+                    throw new NumberFormatException("Linha " + lineNumber + ": " + e.getMessage());
+                }
+
+                System.arraycopy(row, 0, block.inputs, block.rows * width, width);
+                block.labels[block.rows] = label;
+                block.lineNumbers[block.rows] = lineNumber;
+                if (++block.rows == ROWS_PER_BLOCK) {
+                    long handoff = System.nanoTime();
+                    out.put(block);
+                    block = freeBlocks.take();
+                    block.rows = 0;
+                    block.sequence = sequence++;
+                    chunkStart += System.nanoTime() - handoff; // não contar a espera na fila
+                }
+            }
+            busy += System.nanoTime() - chunkStart;
+            freeChunks.put(chunk);
+        }
+        encodeNanos = busy;
+
+        if (block.rows > 0) {
+            out.put(block);
+        } else {
+            freeBlocks.put(block);
+        }
+        out.put(Block.END);
+        return null;
+    }
+
+    /**
+     * Worker de inferência: calcula cada bloco numa única chamada e soma as
+     * previsões dos registros com rótulo nos seus acumuladores. O bloco segue
+     * para out (a gravação ou o pool). Retorna {registros, registros com
+     * rótulo, tempo ocupado}.
+     */
+    private long[] score(BlockingQueue<Block> in, BlockingQueue<Block> out, PredictionAccumulator[] accumulators)
+            throws InterruptedException {
+        CompiledScorer.Workspace workspace = scorer.newWorkspace();
+        int outputCount = scorer.getOutputCount();
+        long rows = 0;
+        long labeled = 0;
+        long busy = 0;
+
+        Block block;
+        while ((block = in.take()) != Block.END) {
+            long start = System.nanoTime();
+            scorer.score(block.inputs, block.rows, block.outputs, workspace);
+
+            for (int r = 0; r < block.rows; r++) {
+                double label = block.labels[r];
+                if (!Double.isNaN(label)) {
+                    double probability = block.outputs[r * outputCount];
+                    boolean actualPositive = label > ConfusionMatrix.DEFAULT_THRESHOLD;
+                    for (PredictionAccumulator accumulator : accumulators) {
+                        accumulator.accept(probability, actualPositive);
+                    }
+                    labeled++;
+                }
+            }
+            rows += block.rows;
+            busy += System.nanoTime() - start;
+            out.put(block);
+        }
+        in.put(Block.END); // devolver o marcador para os outros workers
+        if (output != null) {
+            out.put(Block.END);
+        }
+        return new long[] {rows, labeled, busy};
+    }
+
+    /**
+     * Estágio de gravação: grava os blocos na ordem do arquivo, guardando os
+     * que chegam adiantados, até receber o marcador de fim de cada worker.
+     */
+    private Void write(BlockingQueue<Block> in, BlockingQueue<Block> free, int workers)
+            throws IOException, InterruptedException {
+        int outputCount = scorer.getOutputCount();
+        Map<Long, Block> pending = new HashMap<>();
+        StringBuilder line = new StringBuilder(64);
+        long next = 0;
+        long busy = 0;
+
+        try (OutputStream writer = new BufferedOutputStream(Files.newOutputStream(Paths.get(output)), 1 << 16)) {
+            for (int finished = 0; finished < workers; ) {
+                Block block = in.take();
+                if (block == Block.END) {
+                    finished++;
+                    continue;
+                }
+                long start = System.nanoTime();
+                pending.put(block.sequence, block);
+                for (Block ready = pending.remove(next); ready != null; ready = pending.remove(++next)) {
+                    for (int r = 0; r < ready.rows; r++) {
+                        line.setLength(0);
+                        line.append(ready.lineNumbers[r]).append(';').append(ready.outputs[r * outputCount]).append('\n');
+                        for (int c = 0; c < line.length(); c++) {
+                            writer.write(line.charAt(c)); // apenas ASCII
+                        }
+                    }
+                    free.put(ready);
+                }
+                busy += System.nanoTime() - start;
+            }
+        }
+        scoreNanos += busy;
+        return null;
+    }
+
+    /**
+     * Bloco de bytes do arquivo, sempre terminado num fim de linha.
+     */
+    private static final class Chunk {
+        static final Chunk END = new Chunk(0);
+
+        byte[] data;
+        int length;
+
+        Chunk(int size) {
+            data = new byte[size];
+        }
+    }
+
+    /**
+     * Bloco de registros codificados.
+     */
+    private static final class Block {
+        static final Block END = new Block(0, 0);
+
+        final double[] inputs;
+        final double[] outputs;
+        final double[] labels = new double[ROWS_PER_BLOCK];
+        final long[] lineNumbers = new long[ROWS_PER_BLOCK];
+        int rows;
+        long sequence; // posição do bloco no arquivo, para a gravação em ordem
+
+        Block(int width, int outputCount) {
+            inputs = new double[ROWS_PER_BLOCK * width];
+            outputs = new double[ROWS_PER_BLOCK * outputCount];
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera um CSV sintético no formato do bank.csv, de qualquer tamanho, para
+ * benchmarks. Cada linha é uma linha sorteada do arquivo modelo com os
+ * atributos numéricos perturbados; as categorias e o rótulo são mantidos.
+ * Executar: java -cp "lib\*;bin" SyntheticBankData saida.csv linhas [semente]
+ */
+public class SyntheticBankData {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: SyntheticBankData saida.csv linhas [semente]");
+            return;
+        }
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        generate("bank_assets/bank.csv", args[0], Integer.parseInt(args[1]), seed);
+        System.out.println("Gerado " + args[0] + " com " + args[1] + " registros");
+    }
+
+    public static void generate(String template, String output, int rows, long seed) throws IOException {
+        String header;
+        List<String[]> records = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(template))) {
+            header = br.readLine();
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] values = line.split(";");
+                if (values.length >= BankCsvReader.COLUMN_COUNT) {
+                    records.add(values);
+                }
+            }
+        }
+
+        Random random = new Random(seed);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(output))) {
+            writer.write(header);
+            writer.newLine();
+
+            String[] values = new String[BankCsvReader.COLUMN_COUNT];
+            for (int row = 0; row < rows; row++) {
+                System.arraycopy(records.get(random.nextInt(records.size())), 0, values, 0, values.length);
+
+                values[0] = Integer.toString(clamp(Integer.parseInt(values[0]) + random.nextInt(7) - 3, 18, 95)); // age
+                values[5] = Long.toString(Math.round(Long.parseLong(values[5]) * (0.8 + 0.4 * random.nextDouble()))); // balance
+                values[9] = Integer.toString(1 + random.nextInt(31)); // day
+                values[11] = Long.toString(Math.round(Long.parseLong(values[11]) * (0.5 + random.nextDouble()))); // duration
+
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(';');
+                    }
+                    writer.write(values[i]);
+                }
+                writer.newLine();
+            }
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,374 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Análise de todos os pontos de corte. Guarda as probabilidades de cada
+ * classe em vetores primitivos, ordena cada vetor uma vez e percorre os
+ * dois juntos, do maior corte para o menor, calculando em cada
+ * probabilidade distinta os contatos, precisão, revocação, F1 e a economia
+ * de contatos em relação a contactar todos os clientes. Um corte c
+ * contacta os clientes com probabilidade >= c.
+ *
+ * Ao contrário da {@link RocCurve}, os cortes são exatos, mas a memória
+ * cresce com o número de registros (8 bytes por registro). Para arquivos
+ * lidos em streaming há o modo em faixas ({@link #ThresholdSweep(int)}): as
+ * probabilidades são contadas nas mesmas faixas em logit da RocCurve, a
+ * memória é fixa e os cortes possíveis são os limites inferiores das faixas.
+ * Executar: java -cp "lib\*;bin" ThresholdSweep arquivo.csv [modelo] [curva.csv] [custo do contato] [valor da conversão] [precisão alvo]
+ */
+public class ThresholdSweep implements PredictionAccumulator {
+
+    /**
+     * Critério de escolha do corte: maior valor vence.
+     */
+    public interface Objective {
+        double score(long truePositives, long falsePositives, long falseNegatives, long trueNegatives);
+    }
+
+    public static Objective f1() {
+        return (tp, fp, fn, tn) -> tp > 0 ? 2.0 * tp / (2.0 * tp + fp + fn) : 0;
+    }
+
+    /**
+     * Maior revocação com precisão de pelo menos minPrecision (ex.: "quantos
+     * contatos com 70% de precisão?"); cortes abaixo da precisão valem -1.
+     */
+    public static Objective recallAtPrecision(final double minPrecision) {
+        return (tp, fp, fn, tn) -> tp > 0 && (double) tp / (tp + fp) >= minPrecision ? (double) tp / (tp + fn) : -1;
+    }
+
+    /**
+     * Lucro da campanha: cada conversão vale conversionValue e cada contato custa contactCost.
+     */
+    public static Objective profit(final double contactCost, final double conversionValue) {
+        return (tp, fp, fn, tn) -> tp * conversionValue - (tp + fp) * contactCost;
+    }
+
+    // Modo exato: probabilidades de cada classe
+    private double[] positives;
+    private double[] negatives;
+
+    // Modo em faixas: contagens por faixa de logit (null no modo exato)
+    private final long[] positiveBins;
+    private final long[] negativeBins;
+
+    private long positiveCount;
+    private long negativeCount;
+
+    // Resultado da varredura (null até sweep())
+    private double[] thresholds;
+    private long[] truePositives;
+    private long[] falsePositives;
+
+    /**
+     * Cortes exatos em cada probabilidade distinta.
+     */
+    public ThresholdSweep() {
+        positives = new double[1024];
+        negatives = new double[1024];
+        positiveBins = null;
+        negativeBins = null;
+    }
+
+    /**
+     * Cortes nos limites de bins faixas de logit, com memória fixa.
+     */
+    public ThresholdSweep(int bins) {
+        positiveBins = new long[bins];
+        negativeBins = new long[bins];
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: ThresholdSweep arquivo.csv [modelo] [curva.csv] [custo do contato] [valor da conversão] [precisão alvo]");
+            return;
+        }
+        String model = args.length > 1 ? args[1] : "bankPredictionNetwork" + ModelSnapshot.SUFFIX;
+        String curve = args.length > 2 ? args[2] : BankMarketingPerceptron.THRESHOLD_CURVE_FILE;
+        double contactCost = args.length > 3 ? Double.parseDouble(args[3]) : BankMarketingPerceptron.CONTACT_COST;
+        double conversionValue = args.length > 4 ? Double.parseDouble(args[4]) : BankMarketingPerceptron.CONVERSION_VALUE;
+        double targetPrecision = args.length > 5 ? Double.parseDouble(args[5]) : BankMarketingPerceptron.TARGET_PRECISION;
+
+        ThresholdSweep sweep = new ThresholdSweep(RocCurve.DEFAULT_BINS);
+        new StreamingEvaluator(ModelSnapshot.loadScorer(model)).evaluate(args[0], sweep);
+        System.out.println("=== ANÁLISE DE PONTOS DE CORTE ===");
+        System.out.print(sweep.report(contactCost, conversionValue, targetPrecision));
+        sweep.export(curve, contactCost, conversionValue);
+        System.out.println("Curva com " + sweep.size() + " cortes salva em '" + curve + "'");
+    }
+
+    @Override
+    public void accept(double probability, boolean actualPositive) {
+        if (positiveBins != null) {
+            int bin = RocCurve.bin(probability, positiveBins.length);
+            if (actualPositive) {
+                positiveBins[bin]++;
+                positiveCount++;
+            } else {
+                negativeBins[bin]++;
+                negativeCount++;
+            }
+        } else if (actualPositive) {
+            if (positiveCount == positives.length) {
+                positives = Arrays.copyOf(positives, (int) positiveCount * 2);
+            }
+            positives[(int) positiveCount++] = probability;
+        } else {
+            if (negativeCount == negatives.length) {
+                negatives = Arrays.copyOf(negatives, (int) negativeCount * 2);
+            }
+            negatives[(int) negativeCount++] = probability;
+        }
+        thresholds = null;
+    }
+
+    @Override
+    public ThresholdSweep newEmpty() {
+        return positiveBins != null ? new ThresholdSweep(positiveBins.length) : new ThresholdSweep();
+    }
+
+    @Override
+    public void merge(PredictionAccumulator other) {
+        ThresholdSweep sweep = (ThresholdSweep) other;
+        if (positiveBins != null) {
+            for (int i = 0; i < positiveBins.length; i++) {
+                positiveBins[i] += sweep.positiveBins[i];
+                negativeBins[i] += sweep.negativeBins[i];
+            }
+        } else {
+            positives = append(positives, (int) positiveCount, sweep.positives, (int) sweep.positiveCount);
+            negatives = append(negatives, (int) negativeCount, sweep.negatives, (int) sweep.negativeCount);
+        }
+        positiveCount += sweep.positiveCount;
+        negativeCount += sweep.negativeCount;
+        thresholds = null;
+    }
+
+    private static double[] append(double[] target, int count, double[] source, int sourceCount) {
+        if (count + sourceCount > target.length) {
+            target = Arrays.copyOf(target, Math.max(count + sourceCount, target.length * 2));
+        }
+        System.arraycopy(source, 0, target, count, sourceCount);
+        return target;
+    }
+
+    public long getPositives() {
+        return positiveCount;
+    }
+
+    public long getNegatives() {
+        return negativeCount;
+    }
+
+    /**
+     * Ordena as probabilidades e calcula a matriz de confusão de cada corte.
+     * O ponto 0 é o corte acima de todas as probabilidades (nenhum contato);
+     * os seguintes são as probabilidades distintas (no modo em faixas, os
+     * limites das faixas com registros), em ordem decrescente.
+     */
+    public void sweep() {
+        if (thresholds != null) {
+            return;
+        }
+        if (positiveBins != null) {
+            sweepBins();
+            return;
+        }
+        Arrays.parallelSort(positives, 0, (int) positiveCount);
+        Arrays.parallelSort(negatives, 0, (int) negativeCount);
+
+        int capacity = (int) (positiveCount + negativeCount + 1);
+        double[] cut = new double[capacity];
+        long[] tp = new long[capacity];
+        long[] fp = new long[capacity];
+        cut[0] = Double.POSITIVE_INFINITY;
+
+        int points = 1;
+        int p = (int) positiveCount - 1;
+        int n = (int) negativeCount - 1;
+        while (p >= 0 || n >= 0) {
+            // Próximo corte: a maior probabilidade ainda não incluída, com todos os empates
+            double threshold = Math.max(p >= 0 ? positives[p] : Double.NEGATIVE_INFINITY,
+                                        n >= 0 ? negatives[n] : Double.NEGATIVE_INFINITY);
+            while (p >= 0 && positives[p] == threshold) {
+                p--;
+            }
+            while (n >= 0 && negatives[n] == threshold) {
+                n--;
+            }
+            cut[points] = threshold;
+            tp[points] = positiveCount - 1 - p;
+            fp[points] = negativeCount - 1 - n;
+            points++;
+        }
+
+        thresholds = Arrays.copyOf(cut, points);
+        truePositives = Arrays.copyOf(tp, points);
+        falsePositives = Arrays.copyOf(fp, points);
+    }
+
+    /**
+     * Varredura do modo em faixas: da faixa mais alta para a mais baixa,
+     * um corte no limite inferior de cada faixa com registros.
+     */
+    private void sweepBins() {
+        int bins = positiveBins.length;
+        double[] cut = new double[bins + 1];
+        long[] tp = new long[bins + 1];
+        long[] fp = new long[bins + 1];
+        cut[0] = Double.POSITIVE_INFINITY;
+
+        int points = 1;
+        for (int bin = bins - 1; bin >= 0; bin--) {
+            if (positiveBins[bin] + negativeBins[bin] == 0) {
+                continue;
+            }
+            cut[points] = RocCurve.lowerEdge(bin, bins);
+            tp[points] = tp[points - 1] + positiveBins[bin];
+            fp[points] = fp[points - 1] + negativeBins[bin];
+            points++;
+        }
+
+        thresholds = Arrays.copyOf(cut, points);
+        truePositives = Arrays.copyOf(tp, points);
+        falsePositives = Arrays.copyOf(fp, points);
+    }
+
+    /**
+     * Número de cortes (probabilidades distintas + o corte sem contatos).
+     */
+    public int size() {
+        sweep();
+        return thresholds.length;
+    }
+
+    public double threshold(int point) {
+        sweep();
+        return thresholds[point];
+    }
+
+    public long contacts(int point) {
+        sweep();
+        return truePositives[point] + falsePositives[point];
+    }
+
+    public long truePositives(int point) {
+        sweep();
+        return truePositives[point];
+    }
+
+    public long falsePositives(int point) {
+        sweep();
+        return falsePositives[point];
+    }
+
+    public double precision(int point) {
+        long contacts = contacts(point);
+        return contacts > 0 ? (double) truePositives[point] / contacts : 0;
+    }
+
+    public double recall(int point) {
+        sweep();
+        return positiveCount > 0 ? (double) truePositives[point] / positiveCount : 0;
+    }
+
+    public double f1(int point) {
+        sweep();
+        return f1().score(truePositives[point], falsePositives[point], positiveCount - truePositives[point], 0);
+    }
+
+    /**
+     * Fração dos clientes que deixam de ser contactados em relação a contactar todos.
+     */
+    public double savings(int point) {
+        long total = positiveCount + negativeCount;
+        return total > 0 ? 1.0 - (double) contacts(point) / total : 0;
+    }
+
+    /**
+     * Corte de maior valor para o objetivo (no empate, o de menos contatos).
+     */
+    public int best(Objective objective) {
+        sweep();
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < thresholds.length; i++) {
+            long tp = truePositives[i];
+            long fp = falsePositives[i];
+            double score = objective.score(tp, fp, positiveCount - tp, negativeCount - fp);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Índice do corte mais próximo de threshold (contactar probabilidade >= threshold).
+     */
+    public int pointAt(double threshold) {
+        sweep();
+        int point = 0;
+        while (point + 1 < thresholds.length && thresholds[point + 1] >= threshold) {
+            point++;
+        }
+        return point;
+    }
+
+    /**
+     * Tabela com os cortes de melhor F1, de maior revocação com a precisão
+     * alvo, de maior lucro e o corte padrão de 0.5.
+     */
+    public String report(double contactCost, double conversionValue, double targetPrecision) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-38s %10s %9s %9s %9s %9s %9s %12s%n", "Critério", "Corte", "Contatos",
+            "Precisão", "Revocação", "F1", "Economia", "Lucro"));
+        Objective profit = profit(contactCost, conversionValue);
+        // A matriz de confusão contacta p > 0.5; em faixas, 0.5 é o limite de uma faixa
+        double defaultCut = positiveBins != null ? ConfusionMatrix.DEFAULT_THRESHOLD
+            : Math.nextUp(ConfusionMatrix.DEFAULT_THRESHOLD);
+        appendRow(out, "Corte padrão (0.5)", pointAt(defaultCut), profit);
+        appendRow(out, "Melhor F1", best(f1()), profit);
+        int atPrecision = best(recallAtPrecision(targetPrecision));
+        if (precision(atPrecision) >= targetPrecision) {
+            appendRow(out, String.format("Precisão >= %.0f%%", targetPrecision * 100), atPrecision, profit);
+        } else {
+            out.append(String.format("Precisão >= %.0f%%: nenhum corte atinge%n", targetPrecision * 100));
+        }
+        appendRow(out, String.format("Lucro (contato %.2f, conversão %.2f)", contactCost, conversionValue),
+            best(profit), profit);
+        return out.toString();
+    }
+
+    private void appendRow(StringBuilder out, String label, int point, Objective profit) {
+        long tp = truePositives(point);
+        long fp = falsePositives(point);
+        out.append(String.format("%-38s %10.4f %9d %9.4f %9.4f %9.4f %8.2f%% %12.2f%n", label,
+            Math.min(1.0, threshold(point)), contacts(point), precision(point), recall(point), f1(point),
+            savings(point) * 100, profit.score(tp, fp, positiveCount - tp, negativeCount - fp)));
+    }
+
+    /**
+     * Grava a curva completa em CSV (separador ';', ponto decimal); o
+     * primeiro corte, sem contatos, aparece como Infinity.
+     */
+    public void export(String filename, double contactCost, double conversionValue) throws IOException {
+        Objective profit = profit(contactCost, conversionValue);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8))) {
+            out.println("corte;contatos;verdadeiros_positivos;falsos_positivos;precisao;revocacao;f1;economia;lucro");
+            for (int i = 0; i < size(); i++) {
+                long tp = truePositives[i];
+                long fp = falsePositives[i];
+                out.println(String.format(Locale.ROOT, "%.10g;%d;%d;%d;%.6f;%.6f;%.6f;%.6f;%.2f",
+                    thresholds[i], tp + fp, tp, fp, precision(i), recall(i), f1(i), savings(i),
+                    profit.score(tp, fp, positiveCount - tp, negativeCount - fp)));
+            }
+        }
+    }
+}
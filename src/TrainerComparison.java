@@ -0,0 +1,68 @@
+import java.io.IOException;
+
+import org.neuroph.core.events.LearningEvent;
+import org.neuroph.nnet.MultiLayerPerceptron;
+import org.neuroph.nnet.learning.BackPropagation;
+import org.neuroph.util.TransferFunctionType;
+
+/**
+ * Compara o BackPropagation online do Neuroph com o {@link MiniBatchTrainer}
+ * na mesma topologia 16-32-16-1: tempo de parede por época, erro final e
+ * F1 no próprio conjunto de treinamento.
+ * Executar: java -cp "lib\*;bin" TrainerComparison [épocas] [tamanho do lote]
+ */
+public class TrainerComparison {
+
+    public static void main(String[] args) throws IOException {
+        int epochs = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+        EncodedDataset dataset = BankDataCache.open("bank_assets/bank.csv");
+        System.out.println("=== COMPARAÇÃO DE TREINAMENTO (" + epochs + " épocas, "
+            + dataset.size() + " registros) ===");
+
+        // BackPropagation do Neuroph, uma atualização por padrão
+        MultiLayerPerceptron online = newNetwork();
+        BackPropagation learningRule = new BackPropagation();
+        learningRule.setMaxIterations(epochs);
+        learningRule.setMaxError(0.02);
+        learningRule.setLearningRate(0.1);
+        final long[] epochNanos = new long[1];
+        final long[] lastEpochEnd = {System.nanoTime()};
+        learningRule.addListener(event -> {
+            if (event.getEventType() == LearningEvent.Type.EPOCH_ENDED) {
+                long now = System.nanoTime();
+                epochNanos[0] += now - lastEpochEnd[0];
+                lastEpochEnd[0] = now;
+            }
+        });
+        lastEpochEnd[0] = System.nanoTime();
+        online.learn(dataset.toDataSet(), learningRule);
+        int onlineEpochs = learningRule.getCurrentIteration();
+        report("Neuroph BackPropagation", onlineEpochs, epochNanos[0] / 1e6 / onlineEpochs,
+            learningRule.getTotalNetworkError(), online, dataset);
+
+        // Mini-lotes em paralelo
+        MultiLayerPerceptron batched = newNetwork();
+        MiniBatchTrainer trainer = new MiniBatchTrainer();
+        trainer.setMaxIterations(epochs);
+        trainer.setMaxError(0.02);
+        trainer.setLearningRate(0.1);
+        trainer.setBatchSize(batchSize);
+        trainer.train(batched, dataset);
+        report("MiniBatchTrainer (lote " + batchSize + ")", trainer.getCurrentIteration(),
+            trainer.getAverageEpochMillis(), trainer.getTotalError(), batched, dataset);
+    }
+
+    private static MultiLayerPerceptron newNetwork() {
+        return new MultiLayerPerceptron(TransferFunctionType.SIGMOID,
+            BankMarketingPerceptron.INPUT_SIZE, 32, 16, BankMarketingPerceptron.OUTPUT_SIZE);
+    }
+
+    private static void report(String name, int epochs, double epochMillis, double error,
+                               MultiLayerPerceptron network, EncodedDataset dataset) {
+        ConfusionMatrix matrix = ParallelEvaluator.evaluate(CompiledScorer.compile(network), dataset);
+        System.out.println(String.format("%-28s %5d épocas  %8.2f ms/época  erro %.5f  F1 %.4f",
+            name, epochs, epochMillis, error, matrix.f1Score()));
+    }
+}
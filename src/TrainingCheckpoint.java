@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Estado do treinamento incremental, num arquivo de propriedades legível.
+ *
+ * - offset/records: posição no CSV logo após o último registro já
+ *   incorporado ao modelo salvo e total de registros incorporados.
+ * - pending.*: treinamento em andamento sobre as linhas até pending.offset,
+ *   com pending.epoch épocas concluídas cujos pesos estão no snapshot
+ *   parcial. Existe apenas enquanto um treinamento não termina; se o
+ *   processo morrer, a próxima execução retoma a partir daí.
+ */
+public class TrainingCheckpoint {
+
+    private String source = "";
+    private long offset;
+    private long records;
+    private long pendingOffset = -1;
+    private long pendingRecords;
+    private int pendingEpoch;
+
+    /**
+     * Lê o checkpoint; se o arquivo não existir, começa do início do CSV.
+     */
+    public static TrainingCheckpoint load(String filename) throws IOException {
+        TrainingCheckpoint checkpoint = new TrainingCheckpoint();
+        Path path = Paths.get(filename);
+        if (!Files.exists(path)) {
+            return checkpoint;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        }
+        try {
+            checkpoint.source = properties.getProperty("source", "");
+            checkpoint.offset = Long.parseLong(properties.getProperty("offset", "0"));
+            checkpoint.records = Long.parseLong(properties.getProperty("records", "0"));
+            checkpoint.pendingOffset = Long.parseLong(properties.getProperty("pending.offset", "-1"));
+            checkpoint.pendingRecords = Long.parseLong(properties.getProperty("pending.records", "0"));
+            checkpoint.pendingEpoch = Integer.parseInt(properties.getProperty("pending.epoch", "0"));
+        } catch (NumberFormatException e) {
+            throw new IOException("Checkpoint inválido: " + filename, e);
+        }
+        return checkpoint;
+    }
+
+    public void save(String filename) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", source);
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("records", Long.toString(records));
+        if (hasPending()) {
+            properties.setProperty("pending.offset", Long.toString(pendingOffset));
+            properties.setProperty("pending.records", Long.toString(pendingRecords));
+            properties.setProperty("pending.epoch", Integer.toString(pendingEpoch));
+        }
+
+        AtomicFiles.write(Paths.get(filename), out -> properties.store(out, "Checkpoint do treinamento incremental"));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public boolean hasPending() {
+        return pendingOffset >= 0;
+    }
+
+    public long getPendingOffset() {
+        return pendingOffset;
+    }
+
+    public long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public int getPendingEpoch() {
+        return pendingEpoch;
+    }
+
+    /**
+     * Inicia (ou atualiza) um treinamento em andamento até pendingOffset.
+     */
+    public void setPending(long pendingOffset, long pendingRecords, int pendingEpoch) {
+        this.pendingOffset = pendingOffset;
+        this.pendingRecords = pendingRecords;
+        this.pendingEpoch = pendingEpoch;
+    }
+
+    /**
+     * Conclui o treinamento em andamento: as linhas pendentes passam a fazer
+     * parte do modelo salvo.
+     */
+    public void commitPending() {
+        offset = pendingOffset;
+        records += pendingRecords;
+        pendingOffset = -1;
+        pendingRecords = 0;
+        pendingEpoch = 0;
+    }
+}
@@ -0,0 +1,216 @@
+import java.util.Arrays;
+
+import org.neuroph.nnet.MultiLayerPerceptron;
+import org.neuroph.util.TransferFunctionType;
+
+/**
+ * Arquitetura e hiperparâmetros de um treinamento: camadas ocultas, taxa
+ * de aprendizado, erro máximo, épocas e tamanho do mini-lote. Imutável;
+ * os métodos with* retornam cópias alteradas. {@link #recipe} monta o
+ * treinamento completo do modelo (validação, épocas balanceadas e parada
+ * antecipada), o mesmo em todos os pontos que treinam o modelo publicado.
+ */
+public class TrainingConfig {
+
+    /** Configuração usada por {@link BankMarketingPerceptron}. */
+    public static final TrainingConfig DEFAULT = new TrainingConfig(new int[] {32, 16}, 0.1, 0.02, 5000, 32);
+
+    private final int[] hiddenLayers;
+    private final double learningRate;
+    private final double maxError;
+    private final int maxIterations;
+    private final int batchSize;
+
+    public TrainingConfig(int[] hiddenLayers, double learningRate, double maxError, int maxIterations, int batchSize) {
+        this.hiddenLayers = hiddenLayers.clone();
+        this.learningRate = learningRate;
+        this.maxError = maxError;
+        this.maxIterations = maxIterations;
+        this.batchSize = batchSize;
+    }
+
+    public int[] getHiddenLayers() {
+        return hiddenLayers.clone();
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public double getMaxError() {
+        return maxError;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public TrainingConfig withMaxIterations(int maxIterations) {
+        return new TrainingConfig(hiddenLayers, learningRate, maxError, maxIterations, batchSize);
+    }
+
+    /**
+     * Rede sigmoide nova com 16 entradas, as camadas ocultas e 1 saída.
+     */
+    public MultiLayerPerceptron createNetwork() {
+        int[] layers = new int[hiddenLayers.length + 2];
+        layers[0] = BankMarketingPerceptron.INPUT_SIZE;
+        System.arraycopy(hiddenLayers, 0, layers, 1, hiddenLayers.length);
+        layers[layers.length - 1] = BankMarketingPerceptron.OUTPUT_SIZE;
+        return new MultiLayerPerceptron(TransferFunctionType.SIGMOID, layers);
+    }
+
+    /**
+     * Trainer com a taxa de aprendizado, o erro máximo, as épocas e o lote desta configuração.
+     */
+    public MiniBatchTrainer createTrainer() {
+        MiniBatchTrainer trainer = new MiniBatchTrainer();
+        trainer.setMaxIterations(maxIterations);
+        trainer.setMaxError(maxError);
+        trainer.setLearningRate(learningRate);
+        trainer.setBatchSize(batchSize);
+        return trainer;
+    }
+
+    /**
+     * Receita de treinamento sobre todas as linhas do conjunto.
+     */
+    public Recipe recipe(EncodedDataset dataset, long seed) {
+        int[] rows = new int[dataset.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return recipe(dataset, rows, seed);
+    }
+
+    /**
+     * Receita de treinamento do modelo, usada por {@link BankMarketingPerceptron},
+     * {@link CrossValidation}, {@link HyperparameterSearch} e {@link IncrementalTrainer}:
+     * 1/VALIDATION_FOLDS das linhas (estratificado pelo rótulo) fica fora do
+     * treino para validação, cada época tem todos os positivos e
+     * NEGATIVE_RATIO negativos por positivo ({@link ImbalanceSampler}) e o
+     * treinamento para após VALIDATION_PATIENCE avaliações sem melhora do F1
+     * de validação, com os melhores pesos. Com menos linhas que
+     * VALIDATION_FOLDS não há validação nem parada antecipada.
+     */
+    public Recipe recipe(EncodedDataset dataset, int[] rows, long seed) {
+        int[] trainingRows = rows;
+        int[] validationRows = new int[0];
+        if (rows.length >= BankMarketingPerceptron.VALIDATION_FOLDS) {
+            int[][] folds = CrossValidation.stratifiedFolds(EncodedDataset.subset(dataset, rows),
+                BankMarketingPerceptron.VALIDATION_FOLDS, seed);
+            trainingRows = select(rows, CrossValidation.trainingRows(folds, 0));
+            validationRows = select(rows, folds[0]);
+        }
+
+        MiniBatchTrainer trainer = createTrainer();
+        trainer.setSeed(seed);
+        if (validationRows.length > 0) {
+            trainer.setEarlyStopping(EncodedDataset.subset(dataset, validationRows),
+                BankMarketingPerceptron.VALIDATION_INTERVAL, BankMarketingPerceptron.VALIDATION_PATIENCE,
+                MiniBatchTrainer.Monitor.F1);
+        }
+        ImbalanceSampler sampler = new ImbalanceSampler();
+        sampler.setNegativeRatio(BankMarketingPerceptron.NEGATIVE_RATIO);
+        sampler.setHardNegativeFraction(BankMarketingPerceptron.HARD_NEGATIVE_FRACTION);
+        trainer.setSampler(sampler);
+        return new Recipe(dataset, trainingRows, validationRows, sampler, trainer);
+    }
+
+    private static int[] select(int[] rows, int[] positions) {
+        int[] selected = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            selected[i] = rows[positions[i]];
+        }
+        return selected;
+    }
+
+    /**
+     * Descrição curta, ex.: "32-16 lr=0.1 erro=0.02 épocas=5000 lote=32".
+     */
+    @Override
+    public String toString() {
+        StringBuilder layers = new StringBuilder();
+        for (int size : hiddenLayers) {
+            layers.append(layers.length() > 0 ? "-" : "").append(size);
+        }
+        return layers + " lr=" + learningRate + " erro=" + maxError + " épocas=" + maxIterations + " lote=" + batchSize;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TrainingConfig)) {
+            return false;
+        }
+        TrainingConfig config = (TrainingConfig) other;
+        return Arrays.equals(hiddenLayers, config.hiddenLayers)
+            && learningRate == config.learningRate
+            && maxError == config.maxError
+            && maxIterations == config.maxIterations
+            && batchSize == config.batchSize;
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(hiddenLayers) * 31 + Double.hashCode(learningRate) * 17 + batchSize;
+    }
+
+    /**
+     * Trainer já configurado e as linhas de treino e de validação de uma
+     * receita. O trainer pode ser ajustado (threads, listener, épocas) antes
+     * de {@link #train}.
+     */
+    public static class Recipe {
+        private final EncodedDataset dataset;
+        private final int[] trainingRows;
+        private final int[] validationRows;
+        private final ImbalanceSampler sampler;
+        private final MiniBatchTrainer trainer;
+
+        Recipe(EncodedDataset dataset, int[] trainingRows, int[] validationRows, ImbalanceSampler sampler,
+               MiniBatchTrainer trainer) {
+            this.dataset = dataset;
+            this.trainingRows = trainingRows;
+            this.validationRows = validationRows;
+            this.sampler = sampler;
+            this.trainer = trainer;
+        }
+
+        public MiniBatchTrainer getTrainer() {
+            return trainer;
+        }
+
+        public int[] getTrainingRows() {
+            return trainingRows;
+        }
+
+        /**
+         * Linhas de validação (vazio quando não há validação).
+         */
+        public int[] getValidationRows() {
+            return validationRows;
+        }
+
+        public EncodedDataset getValidation() {
+            return EncodedDataset.subset(dataset, validationRows);
+        }
+
+        /**
+         * Linhas por época (positivos e negativos amostrados).
+         */
+        public int epochSize() {
+            return sampler.epochSize(dataset, trainingRows);
+        }
+
+        /**
+         * Treina a rede, partindo dos pesos atuais, com as linhas de treino.
+         */
+        public MultiLayerPerceptron train(MultiLayerPerceptron network) {
+            return trainer.train(network, dataset, trainingRows);
+        }
+    }
+}
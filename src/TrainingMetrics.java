@@ -0,0 +1,190 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Instrumentação do treinamento e da avaliação. Grava um registro JSON
+ * por linha no arquivo de métricas:
+ *
+ *   {"type":"epoch","epoch":1,"error":0.0731,"epoch_ms":4.1,"rows_per_s":1102000,
+ *    "gc_count":0,"gc_ms":0,"allocated_bytes":81920,"heap_used_bytes":21000000,"elapsed_ms":4.1}
+ *   {"type":"phase","phase":"treinamento","ms":5321.4,"gc_count":3,"gc_ms":12,"allocated_bytes":...}
+ *
+ * Coletas e alocação são diferenças desde o registro anterior do mesmo
+ * tipo (época) ou desde o início da fase. A alocação é a soma de todas as
+ * threads vivas, pelo ThreadMXBean do HotSpot; em outras JVMs fica -1.
+ * Opcionalmente imprime uma linha de progresso a cada progressInterval épocas.
+ */
+public class TrainingMetrics implements Closeable {
+
+    private final PrintWriter out;
+    private final Map<String, Double> phaseMillis = new LinkedHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    public TrainingMetrics(String filename) throws IOException {
+        this.out = new PrintWriter(Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Listener para o {@link MiniBatchTrainer}; rows é o número de linhas de
+     * cada época e progressInterval o intervalo das linhas de progresso
+     * (0 = sem progresso).
+     */
+    public MiniBatchTrainer.EpochListener epochListener(final int rows, final int progressInterval) {
+        return new MiniBatchTrainer.EpochListener() {
+            private final Snapshot previous = new Snapshot();
+            private double lastReportedError = Double.NaN;
+
+            @Override
+            public void epochFinished(int epoch, double totalError, long epochNanos) {
+                Snapshot now = new Snapshot();
+                double rowsPerSecond = rows / (epochNanos / 1e9);
+                write(new StringBuilder("{\"type\":\"epoch\"")
+                    .append(",\"epoch\":").append(epoch)
+                    .append(",\"error\":").append(number(totalError))
+                    .append(",\"epoch_ms\":").append(number(epochNanos / 1e6))
+                    .append(",\"rows_per_s\":").append(number(rowsPerSecond))
+                    .append(now.since(previous))
+                    .append(",\"heap_used_bytes\":").append(now.heapUsed)
+                    .append(",\"elapsed_ms\":").append(number((now.nanos - startNanos) / 1e6))
+                    .append('}'));
+                previous.copy(now);
+
+                if (progressInterval > 0 && epoch % progressInterval == 0) {
+                    String trend = Double.isNaN(lastReportedError) ? ""
+                        : String.format(" (%+.5f)", totalError - lastReportedError);
+                    System.out.println(String.format("Época %d: erro %.5f%s, %.2f ms/época, %.0f registros/s",
+                        epoch, totalError, trend, epochNanos / 1e6, rowsPerSecond));
+                    lastReportedError = totalError;
+                }
+            }
+        };
+    }
+
+    /**
+     * Mede uma fase até o close(); para uso com try-with-resources.
+     */
+    public Phase phase(String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * Registra uma duração medida por outro componente (ex.: o tempo
+     * ocupado de um estágio do {@link StreamingEvaluator}).
+     */
+    public void recordPhase(String name, long nanos) {
+        phaseMillis.merge(name, nanos / 1e6, Double::sum);
+        write(new StringBuilder("{\"type\":\"phase\",\"phase\":\"").append(name)
+            .append("\",\"ms\":").append(number(nanos / 1e6)).append('}'));
+    }
+
+    /**
+     * Resumo com o tempo total de cada fase, na ordem em que apareceram.
+     */
+    public String phaseReport() {
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, Double> phase : phaseMillis.entrySet()) {
+            report.append(String.format("%-24s %10.1f ms%n", phase.getKey(), phase.getValue()));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void close() {
+        out.close();
+    }
+
+    private synchronized void write(CharSequence record) {
+        out.println(record);
+        out.flush(); // para acompanhar o arquivo durante o treinamento
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.6g", value);
+    }
+
+    public class Phase implements AutoCloseable {
+        private final String name;
+        private final Snapshot start = new Snapshot();
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            Snapshot end = new Snapshot();
+            double millis = (end.nanos - start.nanos) / 1e6;
+            phaseMillis.merge(name, millis, Double::sum);
+            write(new StringBuilder("{\"type\":\"phase\",\"phase\":\"").append(name)
+                .append("\",\"ms\":").append(number(millis))
+                .append(end.since(start)).append('}'));
+        }
+    }
+
+    /**
+     * Contadores de coleta, alocação e heap num instante.
+     */
+    private static class Snapshot {
+        private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+        private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+        long nanos;
+        long gcCount;
+        long gcMillis;
+        long allocatedBytes;
+        long heapUsed;
+
+        Snapshot() {
+            nanos = System.nanoTime();
+            for (GarbageCollectorMXBean collector : COLLECTORS) {
+                gcCount += Math.max(0, collector.getCollectionCount());
+                gcMillis += Math.max(0, collector.getCollectionTime());
+            }
+            allocatedBytes = allocatedBytes();
+            heapUsed = MEMORY.getHeapMemoryUsage().getUsed();
+        }
+
+        void copy(Snapshot other) {
+            nanos = other.nanos;
+            gcCount = other.gcCount;
+            gcMillis = other.gcMillis;
+            allocatedBytes = other.allocatedBytes;
+            heapUsed = other.heapUsed;
+        }
+
+        String since(Snapshot before) {
+            long allocated = allocatedBytes < 0 || before.allocatedBytes < 0 ? -1
+                : Math.max(0, allocatedBytes - before.allocatedBytes);
+            return ",\"gc_count\":" + (gcCount - before.gcCount)
+                + ",\"gc_ms\":" + (gcMillis - before.gcMillis)
+                + ",\"allocated_bytes\":" + allocated;
+        }
+
+        private static long allocatedBytes() {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+                return -1;
+            }
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+            if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+                return -1;
+            }
+            long total = 0;
+            for (long bytes : hotspot.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                total += Math.max(0, bytes);
+            }
+            return total;
+        }
+    }
+}